@@ -0,0 +1,69 @@
+package com.relaxingleg.pathfinding;
+
+import com.relaxingleg.pathfinding.benchmark.MapType;
+import com.relaxingleg.pathfinding.render.CellChanges;
+import com.relaxingleg.pathfinding.render.CellColours;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Times what the demo does every frame to hand the cells to the renderer, a search step changes a handful of cells
+ * and the renderer goes through just those
+ * It lives in the same package as the controller so it can make one without a window
+ * @author Matt
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class GridControllerBenchmark {
+
+    @Param({"25", "256", "1024", "4096"})
+    private int size;
+
+    @Param({"0.2"})
+    private double density;
+
+    @Param({"OPEN"})
+    private MapType mapType;
+
+    private GridController gridController;
+    private int step;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        gridController = new GridController(size);
+        mapType.fill(gridController.getGrid(), density, 42);
+    }
+
+    @Benchmark
+    public void frame(Blackhole blackhole) {
+        int x = step % size;
+        int y = (step / size) % size;
+        step++;
+        for(int i = 0; i < 8; i++) {
+            gridController.cellOpened((x + i) % size, y);
+        }
+        CellColours cells = gridController.getCells();
+        CellChanges changes = gridController.getChanges();
+        for(int i = 0; i < changes.size(); i++) {
+            blackhole.consume(cells.getColour(changes.get(i)));
+        }
+        changes.clear();
+    }
+}
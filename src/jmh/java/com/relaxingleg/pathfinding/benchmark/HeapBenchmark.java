@@ -0,0 +1,71 @@
+package com.relaxingleg.pathfinding.benchmark;
+
+import com.relaxingleg.pathfinding.utils.BucketQueue;
+import com.relaxingleg.pathfinding.utils.IntHeap;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Times putting a batch of random priorities into each queue and popping them all back out
+ * @author Matt
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class HeapBenchmark {
+
+    @Param({"1024", "65536"})
+    private int count;
+
+    private int[] priorities;
+    private IntHeap intHeap;
+    private BucketQueue bucketQueue;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        Random random = new Random(42);
+        priorities = new int[count];
+        for(int i = 0; i < count; i++) {
+            priorities[i] = random.nextInt(count*10);
+        }
+        intHeap = new IntHeap((node1, node2) -> Integer.compare(priorities[node2], priorities[node1]), count);
+        bucketQueue = new BucketQueue(node -> priorities[node], count);
+    }
+
+    @Benchmark
+    public void intHeap(Blackhole blackhole) {
+        for(int i = 0; i < count; i++) {
+            intHeap.put(i);
+        }
+        while(!intHeap.isEmpty()) {
+            blackhole.consume(intHeap.pop());
+        }
+    }
+
+    @Benchmark
+    public void bucketQueue(Blackhole blackhole) {
+        for(int i = 0; i < count; i++) {
+            bucketQueue.put(i);
+        }
+        while(!bucketQueue.isEmpty()) {
+            blackhole.consume(bucketQueue.pop());
+        }
+    }
+}
@@ -0,0 +1,98 @@
+package com.relaxingleg.pathfinding.benchmark;
+
+import com.relaxingleg.pathfinding.grid.Grid;
+import com.relaxingleg.pathfinding.search.Heuristic;
+import com.relaxingleg.pathfinding.search.LandmarkHeuristic;
+import com.relaxingleg.pathfinding.search.LandmarkSelection;
+import com.relaxingleg.pathfinding.search.Path;
+import com.relaxingleg.pathfinding.search.PathfindingEngine;
+import com.relaxingleg.pathfinding.search.QueueType;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the octile distance with landmark heuristics on random queries, the cells expanded per search are counted
+ * alongside the time
+ * @author Matt
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class LandmarkBenchmark {
+
+    private static final int QUERIES = 64;
+
+    @Param({"256", "1024"})
+    private int size;
+
+    @Param({"OPEN", "MAZE", "ROOMS"})
+    private MapType mapType;
+
+    @Param({"OCTILE", "FARTHEST", "AVOID"})
+    private String heuristic;
+
+    private PathfindingEngine engine;
+    private int[] queries;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        Grid grid = new Grid(size, size);
+        mapType.fill(grid, mapType == MapType.MAZE ? 0 : 0.2, 42);
+        engine = new PathfindingEngine(grid);
+        engine.setQueueType(QueueType.BUCKETS);
+        engine.setHeuristic(heuristic.equals("OCTILE") ? Heuristic.OCTILE
+                : LandmarkHeuristic.build(grid, 16, LandmarkSelection.valueOf(heuristic)));
+        Random random = new Random(7);
+        queries = new int[QUERIES*4];
+        for(int i = 0; i < QUERIES; i++) {
+            int start, goal;
+            do {
+                start = random.nextInt(grid.getCellCount());
+                goal = random.nextInt(grid.getCellCount());
+            } while(grid.isBlocked(grid.getX(start), grid.getY(start)) || grid.isBlocked(grid.getX(goal), grid.getY(goal)));
+            queries[i*4] = grid.getX(start);
+            queries[i*4 + 1] = grid.getY(start);
+            queries[i*4 + 2] = grid.getX(goal);
+            queries[i*4 + 3] = grid.getY(goal);
+        }
+    }
+
+    @Benchmark
+    public Path findPath(Expansions expansions) {
+        int i = next;
+        next = (next + 1) % QUERIES;
+        Path path = engine.findPath(queries[i*4], queries[i*4 + 1], queries[i*4 + 2], queries[i*4 + 3]);
+        expansions.expanded += engine.getExpandedCount();
+        expansions.searches++;
+        return path;
+    }
+
+    /**
+     * Totals reported next to the time, the cells expanded per search is expanded divided by searches
+     */
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class Expansions {
+
+        public long expanded;
+        public long searches;
+    }
+}
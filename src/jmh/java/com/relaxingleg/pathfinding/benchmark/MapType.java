@@ -0,0 +1,128 @@
+package com.relaxingleg.pathfinding.benchmark;
+
+import com.relaxingleg.pathfinding.grid.Grid;
+
+import java.util.Random;
+
+/**
+ * The kinds of map the benchmarks are run on
+ * Every map keeps the top left and bottom right corners clear so they can be used as the start and goal
+ * @author Matt
+ */
+public enum MapType {
+
+    /**
+     * No walls, only the random obstacles
+     */
+    OPEN,
+    /**
+     * A maze with corridors one cell wide, made with a randomised depth first search
+     */
+    MAZE,
+    /**
+     * Square rooms joined by doors in their walls
+     */
+    ROOMS;
+
+    private static final int ROOM_SIZE = 16;
+
+    /**
+     * Will fill a grid with this kind of map
+     * @param grid The grid to fill, it is cleared first
+     * @param density The chance of each free cell being blocked after the walls are made
+     * @param seed The seed for the random numbers, so the same map can be made again
+     */
+    public void fill(Grid grid, double density, long seed) {
+        Random random = new Random(seed);
+        grid.clear();
+        switch(this) {
+            case MAZE -> createMaze(grid, random);
+            case ROOMS -> createRooms(grid, random);
+            default -> {}
+        }
+        if(density > 0) {
+            for(int y = 0; y < grid.getHeight(); y++) {
+                for(int x = 0; x < grid.getWidth(); x++) {
+                    if(random.nextDouble() < density) grid.setBlocked(x, y, true);
+                }
+            }
+        }
+        grid.setBlocked(0, 0, false);
+        grid.setBlocked(grid.getWidth()-1, grid.getHeight()-1, false);
+    }
+
+    private static void createMaze(Grid grid, Random random) {
+        int width = grid.getWidth();
+        int height = grid.getHeight();
+        for(int y = 0; y < height; y++) {
+            for(int x = 0; x < width; x++) {
+                grid.setBlocked(x, y, true);
+            }
+        }
+        // Rooms of the maze are on even coordinates and the walls between them are on odd ones
+        int roomsX = (width + 1) / 2;
+        int roomsY = (height + 1) / 2;
+        boolean[] visited = new boolean[roomsX*roomsY];
+        int[] stack = new int[roomsX*roomsY];
+        int stackSize = 0;
+        stack[stackSize++] = 0;
+        visited[0] = true;
+        grid.setBlocked(0, 0, false);
+        int[] directions = new int[4];
+        while(stackSize > 0) {
+            int room = stack[stackSize-1];
+            int roomX = room % roomsX;
+            int roomY = room / roomsX;
+            int count = 0;
+            if(roomX > 0 && !visited[room-1]) directions[count++] = room-1;
+            if(roomX < roomsX-1 && !visited[room+1]) directions[count++] = room+1;
+            if(roomY > 0 && !visited[room-roomsX]) directions[count++] = room-roomsX;
+            if(roomY < roomsY-1 && !visited[room+roomsX]) directions[count++] = room+roomsX;
+            if(count == 0) {
+                stackSize--;
+                continue;
+            }
+            int next = directions[random.nextInt(count)];
+            int nextX = next % roomsX;
+            int nextY = next / roomsX;
+            grid.setBlocked(roomX + nextX, roomY + nextY, false);
+            grid.setBlocked(nextX*2, nextY*2, false);
+            visited[next] = true;
+            stack[stackSize++] = next;
+        }
+        // With an even size the last row and column have no rooms, so open them up to reach the goal
+        if(width % 2 == 0) {
+            for(int y = 0; y < height; y += 2) grid.setBlocked(width-1, y, false);
+        }
+        if(height % 2 == 0) {
+            for(int x = 0; x < width; x += 2) grid.setBlocked(x, height-1, false);
+        }
+    }
+
+    private static void createRooms(Grid grid, Random random) {
+        int width = grid.getWidth();
+        int height = grid.getHeight();
+        for(int y = ROOM_SIZE; y < height; y += ROOM_SIZE) {
+            for(int x = 0; x < width; x++) {
+                grid.setBlocked(x, y, true);
+            }
+        }
+        for(int x = ROOM_SIZE; x < width; x += ROOM_SIZE) {
+            for(int y = 0; y < height; y++) {
+                grid.setBlocked(x, y, true);
+            }
+        }
+        for(int y = 0; y < height; y += ROOM_SIZE) {
+            for(int x = 0; x < width; x += ROOM_SIZE) {
+                int roomWidth = Math.min(ROOM_SIZE - 1, width - x - 1);
+                int roomHeight = Math.min(ROOM_SIZE - 1, height - y - 1);
+                if(x + ROOM_SIZE < width && roomHeight > 0) {
+                    grid.setBlocked(x + ROOM_SIZE, y + 1 + random.nextInt(roomHeight), false);
+                }
+                if(y + ROOM_SIZE < height && roomWidth > 0) {
+                    grid.setBlocked(x + 1 + random.nextInt(roomWidth), y + ROOM_SIZE, false);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,43 @@
+package com.relaxingleg.pathfinding.benchmark;
+
+import com.relaxingleg.pathfinding.search.PathfindingEngine;
+import com.relaxingleg.pathfinding.utils.Maths;
+import org.joml.Matrix4f;
+import org.joml.Vector2f;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Times the small calls that are made once per cell, the heuristic and the matrix the renderer builds
+ * @author Matt
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MathsBenchmark {
+
+    private int x1 = 3, y1 = 17, x2 = 250, y2 = 96;
+    private float x = 0.25f, y = -0.5f, width = 0.02f, height = 0.04f;
+
+    @Benchmark
+    public int getDistance() {
+        return PathfindingEngine.getDistance(x1, y1, x2, y2);
+    }
+
+    @Benchmark
+    public Matrix4f createTransformationMatrix() {
+        return Maths.createTransformationMatrix(new Vector2f(x, y), new Vector2f(width, height));
+    }
+}
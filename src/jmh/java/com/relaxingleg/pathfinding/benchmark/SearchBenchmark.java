@@ -0,0 +1,84 @@
+package com.relaxingleg.pathfinding.benchmark;
+
+import com.relaxingleg.pathfinding.grid.Grid;
+import com.relaxingleg.pathfinding.search.Path;
+import com.relaxingleg.pathfinding.search.PathfindingEngine;
+import com.relaxingleg.pathfinding.search.QueueType;
+import com.relaxingleg.pathfinding.search.SearchListener;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Times a whole A* search from the top left to the bottom right of a map
+ * The stepped version goes through the same calls as the demo does one frame at a time
+ * @author Matt
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SearchBenchmark {
+
+    @Param({"25", "256", "1024", "4096"})
+    private int size;
+
+    @Param({"0.0", "0.2"})
+    private double density;
+
+    @Param({"OPEN", "MAZE", "ROOMS"})
+    private MapType mapType;
+
+    @Param({"HEAP", "BUCKETS"})
+    private QueueType queueType;
+
+    private PathfindingEngine engine;
+    private PathfindingEngine steppedEngine;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        Grid grid = new Grid(size, size);
+        mapType.fill(grid, density, 42);
+        engine = new PathfindingEngine(grid);
+        steppedEngine = new PathfindingEngine(grid);
+        engine.setQueueType(queueType);
+        steppedEngine.setQueueType(queueType);
+        steppedEngine.setListener(new SearchListener() {
+            @Override
+            public void cellOpened(int x, int y) {}
+
+            @Override
+            public void cellClosed(int x, int y) {}
+        });
+    }
+
+    @Benchmark
+    public Path findPath() {
+        return engine.findPath(0, 0, size-1, size-1);
+    }
+
+    @Benchmark
+    public Path stepped(Blackhole blackhole) {
+        steppedEngine.start(0, 0, size-1, size-1);
+        int steps = 0;
+        while(!steppedEngine.step()) {
+            steps++;
+        }
+        blackhole.consume(steps);
+        return steppedEngine.getPath();
+    }
+}
@@ -0,0 +1,30 @@
+package com.relaxingleg.pathfinding;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * A Java Flight Recorder event for one phase of a frame of the loop, so slow frames can be lined up with GC pauses
+ * It is off unless a recording turns it on
+ * @author Matt
+ */
+@Name("com.relaxingleg.pathfinding.FramePhase")
+@Label("Frame Phase")
+@Category("Pathfinding")
+@Description("One phase of a frame, update, render or the window.render buffer swap")
+@Enabled(false)
+@StackTrace(false)
+class FramePhaseEvent extends Event {
+
+    @Label("Phase")
+    private final String phase;
+
+    FramePhaseEvent(String phase) {
+        this.phase = phase;
+    }
+}
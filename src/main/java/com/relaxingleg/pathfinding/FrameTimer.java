@@ -0,0 +1,109 @@
+package com.relaxingleg.pathfinding;
+
+import com.relaxingleg.pathfinding.utils.Histogram;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Keeps histograms of how many nanoseconds each phase of a frame takes, both since the last report and for the whole run
+ * Recording a time never allocates, so timing the loop doesn't add garbage collection to the frames being timed
+ * @author Matt
+ */
+public class FrameTimer {
+
+    /**
+     * The parts of a frame that are timed
+     */
+    public enum Phase {
+        UPDATE("update"),
+        CELLS("getCells"),
+        RENDER("render"),
+        FRAME("frame");
+
+        private final String label;
+
+        Phase(String label) {
+            this.label = label;
+        }
+
+        /**
+         * Getter for the label
+         * @return The name shown in the title and the CSV
+         */
+        public String getLabel() {
+            return label;
+        }
+    }
+
+    private static final Phase[] PHASES = Phase.values();
+    private static final String CSV_HEADER = "phase,count,mean,p50,p90,p99,p99.9,max";
+    private static final double[] CSV_PERCENTILES = {50, 90, 99, 99.9};
+    private final Histogram[] recent = new Histogram[PHASES.length];
+    private final Histogram[] total = new Histogram[PHASES.length];
+
+    /**
+     * Creates a timer with nothing recorded
+     */
+    public FrameTimer() {
+        for(int i = 0; i < PHASES.length; i++) {
+            recent[i] = new Histogram();
+            total[i] = new Histogram();
+        }
+    }
+
+    /**
+     * Records how long a phase took
+     * @param phase The phase
+     * @param nanos How long it took in nanoseconds
+     */
+    public void record(Phase phase, long nanos) {
+        recent[phase.ordinal()].record(nanos);
+        total[phase.ordinal()].record(nanos);
+    }
+
+    /**
+     * Describes the times since the last report in milliseconds, then starts the next report
+     * @return The p50, p99 and max of each phase, such as "frame 16.7/17.1/18.0ms"
+     */
+    public String report() {
+        StringBuilder builder = new StringBuilder();
+        for(int i = 0; i < PHASES.length; i++) {
+            Histogram histogram = recent[i];
+            if(i > 0) builder.append(" | ");
+            builder.append(PHASES[i].getLabel()).append(' ')
+                    .append(toMillis(histogram.getPercentile(50))).append('/')
+                    .append(toMillis(histogram.getPercentile(99))).append('/')
+                    .append(toMillis(histogram.getMax())).append("ms");
+            histogram.reset();
+        }
+        return builder.toString();
+    }
+
+    /**
+     * Writes the times of the whole run to a CSV file, one row per phase with the times in nanoseconds
+     * @param file The file to write, it is replaced if it exists
+     * @throws IOException If the file can't be written
+     */
+    public void writeCsv(Path file) throws IOException {
+        try(BufferedWriter writer = Files.newBufferedWriter(file)) {
+            writer.write(CSV_HEADER);
+            writer.newLine();
+            for(int i = 0; i < PHASES.length; i++) {
+                Histogram histogram = total[i];
+                writer.write(PHASES[i].getLabel() + "," + histogram.getCount() + "," + Math.round(histogram.getMean()));
+                for(double percentile : CSV_PERCENTILES) {
+                    writer.write("," + histogram.getPercentile(percentile));
+                }
+                writer.write("," + histogram.getMax());
+                writer.newLine();
+            }
+        }
+    }
+
+    private static String toMillis(long nanos) {
+        return String.format("%.1f", nanos/1_000_000.0);
+    }
+}
@@ -1,26 +1,41 @@
 package com.relaxingleg.pathfinding;
 
+import com.relaxingleg.pathfinding.grid.ComponentIndex;
+import com.relaxingleg.pathfinding.grid.Grid;
 import com.relaxingleg.pathfinding.io.Input;
 import com.relaxingleg.pathfinding.io.InputListener;
 import com.relaxingleg.pathfinding.io.Window;
-import com.relaxingleg.pathfinding.render.Cell;
-import com.relaxingleg.pathfinding.utils.CellComparator;
-import com.relaxingleg.pathfinding.utils.Heap;
+import com.relaxingleg.pathfinding.render.CellChanges;
+import com.relaxingleg.pathfinding.render.CellColours;
+import com.relaxingleg.pathfinding.search.BackgroundSearch;
+import com.relaxingleg.pathfinding.search.DStarLitePlanner;
+import com.relaxingleg.pathfinding.search.Heuristic;
+import com.relaxingleg.pathfinding.search.JumpPointEngine;
+import com.relaxingleg.pathfinding.search.LandmarkHeuristic;
+import com.relaxingleg.pathfinding.search.LandmarkSelection;
+import com.relaxingleg.pathfinding.search.Path;
+import com.relaxingleg.pathfinding.search.PathfindingEngine;
+import com.relaxingleg.pathfinding.search.SearchContext;
+import com.relaxingleg.pathfinding.search.SearchListener;
+import com.relaxingleg.pathfinding.search.SearchMetrics;
 import org.joml.Vector3f;
 
-import java.util.ArrayList;
-import java.util.Collections;
-import java.util.List;
+import java.util.Arrays;
 
+import static org.lwjgl.glfw.GLFW.GLFW_KEY_B;
 import static org.lwjgl.glfw.GLFW.GLFW_KEY_C;
+import static org.lwjgl.glfw.GLFW.GLFW_KEY_DOWN;
 import static org.lwjgl.glfw.GLFW.GLFW_KEY_ENTER;
+import static org.lwjgl.glfw.GLFW.GLFW_KEY_J;
+import static org.lwjgl.glfw.GLFW.GLFW_KEY_L;
+import static org.lwjgl.glfw.GLFW.GLFW_KEY_UP;
 import static org.lwjgl.glfw.GLFW.GLFW_MOUSE_BUTTON_LEFT;
 
 /**
- * This class controls the cells and the pathfinding
+ * This class controls the cells and drives the pathfinding engine for the demo
  * @author Matt
  */
-public class GridController {
+public class GridController implements SearchListener {
 
     public static final Vector3f EMPTY_COLOUR = new Vector3f(1);
     public static final Vector3f BLOCKED_COLOUR = new Vector3f(0);
@@ -28,13 +43,29 @@ public class GridController {
     public static final Vector3f PATH_COLOUR = new Vector3f(0, 0.75f, 0);
     public static final Vector3f OPEN_COLOUR = new Vector3f(0, 0, 0.75f);
     public static final Vector3f CLOSED_COLOUR = new Vector3f(0.75f, 0, 0);
+    private static final int LANDMARK_COUNT = 8;
     private final int size;
-    private Cell[][] empty;
-    private List<Cell> blocked = new ArrayList<>();
-    private Heap<Cell> open = new Heap<>(new CellComparator());
-    private List<Cell> closed = new ArrayList<>();
+    private final Grid grid;
+    private final ComponentIndex components;
+    private final SearchMetrics metrics;
+    private final PathfindingEngine aStar;
+    private final PathfindingEngine jumpPoint;
+    private PathfindingEngine engine;
+    // Made the first time a path is repaired, it holds four ints and a heap slot per cell
+    private DStarLitePlanner planner;
+    private final BackgroundSearch backgroundSearch;
+    private final CellColours cells;
+    private final CellChanges changes;
     private boolean placement = true;
-    private boolean pathFound = false;
+    private boolean searching = false;
+    private boolean finished = false;
+    private boolean planned = false;
+    private boolean background = false;
+    private boolean landmarks = false;
+    private LandmarkHeuristic landmarkHeuristic;
+    private int stepsPerFrame = 1;
+    private long frameBudget = 0;
+    private Path path;
 
     /**
      * Will create a clear board and add some input listeners
@@ -43,15 +74,31 @@ public class GridController {
      * @param window The window
      */
     public GridController(int size, Input input, Window window) {
-        this.size = size;
-        createEmptyGrid(size);
+        this(size);
         input.addInputListener(new InputListener("switch-placement", GLFW_KEY_ENTER, () -> placement = !placement));
         input.addInputListener(new InputListener("clear-board", GLFW_KEY_C, () -> {
             if(!placement) return;
-            createEmptyGrid(size);
+            createEmptyGrid();
         }));
-        input.addInputListener(new InputListener("switch-cell", GLFW_MOUSE_BUTTON_LEFT, () -> {
+        input.addInputListener(new InputListener("switch-algorithm", GLFW_KEY_J, () -> {
+            if(!placement) return;
+            engine = engine == aStar ? jumpPoint : aStar;
+            if(searching) resetSearch();
+        }));
+        input.addInputListener(new InputListener("switch-background", GLFW_KEY_B, () -> {
+            if(!placement) return;
+            background = !background;
+            if(searching) resetSearch();
+        }));
+        input.addInputListener(new InputListener("switch-heuristic", GLFW_KEY_L, () -> {
             if(!placement) return;
+            landmarks = !landmarks;
+            if(searching) resetSearch();
+        }));
+        input.addInputListener(new InputListener("faster", GLFW_KEY_UP, () -> setStepsPerFrame(Math.min(stepsPerFrame*2, 1 << 20))));
+        input.addInputListener(new InputListener("slower", GLFW_KEY_DOWN, () -> setStepsPerFrame(Math.max(stepsPerFrame/2, 1))));
+        input.addInputListener(new InputListener("switch-cell", GLFW_MOUSE_BUTTON_LEFT, () -> {
+            if(!placement && !finished) return;
             double mouseX = input.getMouseX();
             double mouseY = input.getMouseY();
             double mouseXNormalized = mouseX/window.getWidth();
@@ -68,148 +115,222 @@ public class GridController {
             int gridX = (int)(mouseXNoMargin/height);
             int gridY = (int)(mouseYNormalized/height);
 
+            if(!grid.contains(gridX, gridY)) return;
             if((gridX == 0 && gridY == 0) || (gridX == size-1 && gridY == size-1)) return;
 
-            if(empty[gridX][gridY] != null) {
-                Cell cell = empty[gridX][gridY];
-                empty[gridX][gridY] = null;
-                cell.setColour(BLOCKED_COLOUR);
-                blocked.add(cell);
+            if(!placement) {
+                repairPath(gridX, gridY);
                 return;
             }
-
-            for(int i = 0; i < blocked.size(); i++) {
-                Cell cell = blocked.get(i);
-                if(cell.getX() == gridX && cell.getY() == gridY) {
-                    blocked.remove(cell);
-                    cell.setColour(EMPTY_COLOUR);
-                    empty[gridX][gridY] = cell;
-                    return;
-                }
-            }
+            if(searching) resetSearch();
+            boolean blocked = grid.toggle(gridX, gridY);
+            setColour(gridX, gridY, blocked ? BLOCKED_COLOUR : EMPTY_COLOUR);
         }));
     }
 
     /**
-     * Controls the pathfinding logic
+     * Will create a clear board without any input, used by the benchmarks which run without a window
+     * @param size The size of the board
      */
-    public void update() {
-        if(placement || pathFound) return;
-
-        Cell currentCell = open.pop();
+    GridController(int size) {
+        this.size = size;
+        this.grid = new Grid(size, size);
+        SearchContext context = new SearchContext(grid.getCellCount());
+        this.aStar = new PathfindingEngine(grid, context);
+        this.jumpPoint = new JumpPointEngine(grid, context);
+        this.engine = aStar;
+        this.components = new ComponentIndex(grid);
+        aStar.setComponents(components);
+        jumpPoint.setComponents(components);
+        this.metrics = new SearchMetrics();
+        aStar.setRecorder(metrics);
+        jumpPoint.setRecorder(metrics);
+        this.backgroundSearch = new BackgroundSearch(grid);
+        this.cells = new CellColours(size, size, EMPTY_COLOUR);
+        this.changes = new CellChanges(size*size);
+        aStar.setListener(this);
+        jumpPoint.setListener(this);
+        createEmptyGrid();
+    }
 
-        closed.add(currentCell);
-        currentCell.setColour(CLOSED_COLOUR);
+    /**
+     * Runs this frame's share of the pathfinding, starting the search if it hasn't started yet
+     * It runs the steps per frame, or as many steps as fit in the frame budget if one is set,
+     * and in background mode it only picks up what the solver thread has done since the last frame
+     */
+    public void update() {
+        if(placement || finished) return;
+        if(!searching) {
+            searching = true;
+            Heuristic heuristic = landmarks ? getLandmarkHeuristic() : Heuristic.OCTILE;
+            aStar.setHeuristic(heuristic);
+            jumpPoint.setHeuristic(heuristic);
+            if(background) {
+                backgroundSearch.start(engine, 0, 0, size-1, size-1);
+            } else {
+                engine.start(0, 0, size-1, size-1);
+            }
+        }
 
-        if(currentCell.getX() == size-1 && currentCell.getY() == size-1) {
-            pathFound = true;
-            retracePath(currentCell);
+        if(background) {
+            if(backgroundSearch.poll(this)) finishSearch(backgroundSearch.getPath());
             return;
         }
-
-        List<Cell> neighbours = new ArrayList<>();
-        open.forEach((cell) -> {
-            boolean flag1 = cell.getX() >= currentCell.getX()-1;
-            boolean flag2 = cell.getX() <= currentCell.getX()+1;
-            boolean flag3 = cell.getY() >= currentCell.getY()-1;
-            boolean flag4 = cell.getY() <= currentCell.getY()+1;
-            if(flag1 && flag2 && flag3 && flag4) {
-                neighbours.add(cell);
-            }
-        });
-
-        for(int x = -1; x < 2; x++) {
-            for(int y = -1; y < 2; y++) {
-                Cell cell;
-                try {
-                    cell = empty[currentCell.getX() + x][currentCell.getY() + y];
-                } catch (ArrayIndexOutOfBoundsException e) {
-                    continue;
-                }
-                if(cell == null) continue;
-                neighbours.add(cell);
+        long deadline = System.nanoTime() + frameBudget;
+        for(int step = 0; frameBudget > 0 || step < stepsPerFrame; step++) {
+            if(engine.step()) {
+                finishSearch(engine.getPath());
+                return;
             }
+            if(frameBudget > 0 && (step & 15) == 15 && System.nanoTime() >= deadline) return;
         }
+    }
 
-        for(Cell cell : neighbours) {
-            int newGCost = currentCell.getgCost() + getDistance(cell, currentCell);
-            int newHCost = getDistance(cell, new Cell(size-1, size-1, null));
-            if(cell.getgCost() == -1) {
-                empty[cell.getX()][cell.getY()] = null;
-                cell.setParent(currentCell);
-                cell.setgCost(newGCost);
-                cell.sethCost(newHCost);
-                cell.setColour(OPEN_COLOUR);
-                open.put(cell);
-            } else {
-                int oldFCost = cell.getgCost() + cell.gethCost();
-                int newFCost = newGCost + newHCost;
-                if(newFCost < oldFCost) {
-                    cell.setParent(currentCell);
-                    cell.setgCost(newGCost);
-                    cell.sethCost(newHCost);
-                }
-            }
+    /**
+     * Gets the landmark heuristic, building it again if the board has changed since it was last built
+     */
+    private LandmarkHeuristic getLandmarkHeuristic() {
+        if(landmarkHeuristic == null || !landmarkHeuristic.isCurrent()) {
+            landmarkHeuristic = LandmarkHeuristic.build(grid, LANDMARK_COUNT, LandmarkSelection.FARTHEST);
         }
+        return landmarkHeuristic;
     }
 
-    private int getDistance(Cell cellA, Cell cellB) {
-        int distanceX = Math.abs(cellA.getX() - cellB.getX());
-        int distanceY = Math.abs(cellA.getY() - cellB.getY());
+    private void finishSearch(Path path) {
+        this.path = path;
+        finished = true;
+        setPathColour(PATH_COLOUR);
+    }
 
-        if(distanceX > distanceY) {
-            return 14*distanceY + 10*(distanceX-distanceY);
-        } else {
-            return 14*distanceX + 10*(distanceY-distanceX);
+    /**
+     * Switches a cell after the search has finished and lets the incremental planner fix the path
+     * @param x The X coordinate of the cell
+     * @param y The Y coordinate of the cell
+     */
+    private void repairPath(int x, int y) {
+        if(!planned) {
+            if(planner == null) planner = new DStarLitePlanner(grid);
+            planner.findPath(0, 0, size-1, size-1);
+            planned = true;
         }
+        setPathColour(EMPTY_COLOUR);
+        boolean blocked = grid.toggle(x, y);
+        setColour(x, y, blocked ? BLOCKED_COLOUR : EMPTY_COLOUR);
+        path = planner.replan();
+        setPathColour(PATH_COLOUR);
+    }
+
+    private void setPathColour(Vector3f colour) {
+        for(int i = 0; i < path.length(); i++) {
+            setColour(path.getX(i), path.getY(i), colour);
+        }
+    }
+
+    @Override
+    public void cellOpened(int x, int y) {
+        setColour(x, y, OPEN_COLOUR);
     }
 
-    private void retracePath(Cell cell) {
-        cell.setColour(PATH_COLOUR);
-        Cell parent = cell.getParent();
-        if(parent == null) return;
-        retracePath(parent);
+    @Override
+    public void cellClosed(int x, int y) {
+        setColour(x, y, CLOSED_COLOUR);
     }
 
-    private void createEmptyGrid(int size) {
-        empty = new Cell[size][size];
-        blocked.clear();
-        open.clear();
-        closed.clear();
-        pathFound = false;
+    private void setColour(int x, int y, Vector3f colour) {
+        int cell = grid.index(x, y);
+        cells.setColour(cell, colour);
+        changes.add(cell);
+    }
+
+    private void resetSearch() {
+        backgroundSearch.cancel();
+        searching = false;
+        finished = false;
+        planned = false;
         for(int x = 0; x < size; x++) {
             for(int y = 0; y < size; y++) {
-                if(x == 0 && y == 0) {
-                    Cell startCell = new Cell(x, y, CHECKPOINT_COLOUR);
-                    startCell.setgCost(0);
-                    startCell.sethCost(getDistance(startCell, new Cell(size-1, size-1, null)));
-                    open.put(startCell);
-                    continue;
-                } else if(x == size-1 && y == size-1) {
-                    empty[x][y] = new Cell(x, y, CHECKPOINT_COLOUR);
-                    continue;
-                }
-                empty[x][y] = new Cell(x, y, EMPTY_COLOUR);
+                cells.setColour(grid.index(x, y), getRestingColour(x, y));
             }
         }
+        changes.addAll();
+    }
+
+    private Vector3f getRestingColour(int x, int y) {
+        if((x == 0 && y == 0) || (x == size-1 && y == size-1)) return CHECKPOINT_COLOUR;
+        return grid.isBlocked(x, y) ? BLOCKED_COLOUR : EMPTY_COLOUR;
+    }
+
+    private void createEmptyGrid() {
+        // The solver thread reads the grid, so it has to stop before the grid is cleared
+        backgroundSearch.cancel();
+        grid.clear();
+        resetSearch();
+    }
+
+    /**
+     * Gets the colours of the cells to render, they don't change so they only have to be fetched once
+     * @return The colour of every cell, at the same index as in the grid
+     */
+    public CellColours getCells() {
+        return cells;
     }
 
     /**
-     * Gets the cells to render
-     * @return The cells to render
+     * Gets the cells that changed colour since the changes were last cleared
+     * Whoever draws the cells should clear them once they are drawn
+     * @return The changed cells
      */
-    public List<Cell> getCells() {
-        List<Cell> cells = new ArrayList<>();
-        for(int i = 0; i < size; i++) {
-            for(int j = 0; j < size; j++) {
-                Cell cell = empty[i][j];
-                if(cell != null) cells.add(cell);
+    public CellChanges getChanges() {
+        return changes;
+    }
+
+    /**
+     * Copies the obstacles of a map onto the board, anything outside the map is blocked
+     * The start and goal corners are always left walkable
+     * @param map The map to copy
+     */
+    public void load(Grid map) {
+        backgroundSearch.cancel();
+        // The components are labelled once at the end rather than being repaired for every cell
+        grid.removeListener(components);
+        long[] row = new long[grid.getObstacles().getWordsPerRow()];
+        for(int y = 0; y < size; y++) {
+            Arrays.fill(row, 0);
+            for(int x = 0; x < size; x++) {
+                if(!map.contains(x, y) || map.isBlocked(x, y)) row[x >>> 6] |= 1L << x;
             }
+            grid.setRow(y, row);
         }
-        cells.addAll(blocked);
-        cells.addAll(open.getAllItems());
-        cells.addAll(closed);
-        return cells;
+        grid.setBlocked(0, 0, false);
+        grid.setBlocked(size-1, size-1, false);
+        components.rebuild();
+        grid.addListener(components);
+        resetSearch();
+    }
+
+    /**
+     * Stops the background search if it is running
+     */
+    public void cleanUp() {
+        backgroundSearch.cancel();
+    }
+
+    /**
+     * Setter for the amount of search steps run each frame, used when there is no frame budget
+     * @param stepsPerFrame The amount of steps, at least 1
+     */
+    public void setStepsPerFrame(int stepsPerFrame) {
+        if(stepsPerFrame < 1) throw new IllegalArgumentException("Steps per frame must be at least 1, got " + stepsPerFrame);
+        this.stepsPerFrame = stepsPerFrame;
+    }
+
+    /**
+     * Setter for how long the search can run each frame, this is used instead of the steps per frame when it is set
+     * @param frameBudget The time in nanoseconds, or 0 to use the steps per frame
+     */
+    public void setFrameBudget(long frameBudget) {
+        if(frameBudget < 0) throw new IllegalArgumentException("Frame budget can't be negative, got " + frameBudget);
+        this.frameBudget = frameBudget;
     }
 
     /**
@@ -220,6 +341,22 @@ public class GridController {
         return size;
     }
 
+    /**
+     * Getter for the grid
+     * @return The grid
+     */
+    public Grid getGrid() {
+        return grid;
+    }
+
+    /**
+     * Getter for the search metrics
+     * @return The totals of every search run on the board
+     */
+    public SearchMetrics getMetrics() {
+        return metrics;
+    }
+
     /**
      * Getter for the placement value
      * @return Placement
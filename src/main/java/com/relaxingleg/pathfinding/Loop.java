@@ -1,15 +1,27 @@
 package com.relaxingleg.pathfinding;
 
+import com.relaxingleg.pathfinding.grid.Grid;
+import com.relaxingleg.pathfinding.grid.GridSnapshot;
+import com.relaxingleg.pathfinding.grid.MovingAiMap;
 import com.relaxingleg.pathfinding.io.Input;
+import com.relaxingleg.pathfinding.io.InputListener;
 import com.relaxingleg.pathfinding.io.Window;
-import com.relaxingleg.pathfinding.render.Cell;
+import com.relaxingleg.pathfinding.render.CellColours;
 import com.relaxingleg.pathfinding.render.Renderer;
-import com.relaxingleg.pathfinding.utils.Heap;
+import com.relaxingleg.pathfinding.render.TextureRenderer;
 import org.joml.Vector3f;
 
+import javax.management.JMException;
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
 import java.util.ArrayList;
 import java.util.Comparator;
-import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.lwjgl.glfw.GLFW.GLFW_KEY_S;
+import static org.lwjgl.glfw.GLFW.GLFW_KEY_T;
 
 /**
  * The main loop of the engine
@@ -18,53 +30,134 @@ import java.util.List;
  */
 public class Loop {
 
+    private static final String SNAPSHOT_EXTENSION = ".pfgs";
+    private static final String TITLE = "Pathfinding";
+    private static final long REPORT_INTERVAL = TimeUnit.SECONDS.toNanos(1);
+    // Set with -Dpathfinding.frameTimes=frames.csv to save the frame times of the whole run when the window is closed
+    private static final String FRAME_TIMES_PROPERTY = "pathfinding.frameTimes";
+    // Set with -Dpathfinding.frameBudget=2000 to step the search for that many microseconds a frame instead of a set amount of steps
+    private static final String FRAME_BUDGET_PROPERTY = "pathfinding.frameBudget";
     private Window window;
     private Input input;
     private Renderer renderer;
-    private float deltaTime;
+    private TextureRenderer textureRenderer;
+    private boolean textureMode = false;
+    private final FrameTimer frameTimer = new FrameTimer();
     private GridController gridController;
 
     /**
      * The main method of the program
-     * @param args The args of the JVM
+     * @param args The args of the JVM, the first one can be a MovingAI .map file or a saved .pfgs grid to load
      */
     public static void main(String[] args) {
-        Loop loop = new Loop();
+        Grid map = null;
+        if(args.length > 0) {
+            try {
+                map = loadMap(Path.of(args[0]));
+            } catch (IOException e) {
+                throw new RuntimeException("Couldn't load map " + args[0], e);
+            }
+        }
+        Loop loop = new Loop(map);
         loop.loop();
     }
 
-    private Loop() {
-        window = new Window(1920, 1080, "Pathfinding");
+    private static Grid loadMap(Path file) throws IOException {
+        if(!file.toString().endsWith(SNAPSHOT_EXTENSION)) return MovingAiMap.load(file);
+        try(FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            return GridSnapshot.read(channel).grid();
+        }
+    }
+
+    private Loop(Grid map) {
+        window = new Window(1920, 1080, TITLE);
         input = window.getInput();
         renderer = new Renderer();
-        gridController = new GridController(25, input, window);
+        textureRenderer = new TextureRenderer();
+        int size = map == null ? 25 : Math.max(map.getWidth(), map.getHeight());
+        gridController = new GridController(size, input, window);
+        if(map != null) gridController.load(map);
+        gridController.setFrameBudget(TimeUnit.MICROSECONDS.toNanos(Long.getLong(FRAME_BUDGET_PROPERTY, 0)));
+        try {
+            gridController.getMetrics().register("grid");
+        } catch (JMException e) {
+            throw new RuntimeException("Couldn't register the search metrics", e);
+        }
+        input.addInputListener(new InputListener("switch-renderer", GLFW_KEY_T, () -> {
+            textureMode = !textureMode;
+            gridController.getChanges().addAll();
+        }));
+        input.addInputListener(new InputListener("save-grid", GLFW_KEY_S, () -> {
+            Path file = Path.of("grid" + SNAPSHOT_EXTENSION);
+            try(FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+                new GridSnapshot(gridController.getGrid()).write(channel);
+            } catch (IOException e) {
+                throw new RuntimeException("Couldn't save the grid to " + file, e);
+            }
+        }));
     }
 
     private void loop() {
-        float currentFrameTime;
-        float lastFrameTime = System.currentTimeMillis();
+        // The first frame has no frame before it to be timed from
+        long lastFrameStart = Long.MIN_VALUE;
+        long lastReport = System.nanoTime();
         while (!window.isWindowShouldClose()) {
+            long frameStart = System.nanoTime();
             update();
-            render();
-            currentFrameTime = System.currentTimeMillis();
-            deltaTime = currentFrameTime - lastFrameTime;
-            lastFrameTime = currentFrameTime;
+            long updateEnd = System.nanoTime();
+            CellColours cells = gridController.getCells();
+            long cellsEnd = System.nanoTime();
+            render(cells);
+            long renderEnd = System.nanoTime();
+
+            frameTimer.record(FrameTimer.Phase.UPDATE, updateEnd - frameStart);
+            frameTimer.record(FrameTimer.Phase.CELLS, cellsEnd - updateEnd);
+            frameTimer.record(FrameTimer.Phase.RENDER, renderEnd - cellsEnd);
+            if(lastFrameStart != Long.MIN_VALUE) frameTimer.record(FrameTimer.Phase.FRAME, frameStart - lastFrameStart);
+            lastFrameStart = frameStart;
+            if(renderEnd - lastReport >= REPORT_INTERVAL) {
+                window.setTitle(TITLE + " - " + frameTimer.report());
+                lastReport = renderEnd;
+            }
         }
         cleanUp();
     }
 
     private void update() {
+        FramePhaseEvent event = new FramePhaseEvent("update");
+        event.begin();
         window.update();
         gridController.update();
+        event.commit();
     }
 
-    private void render() {
+    private void render(CellColours cells) {
+        FramePhaseEvent swapEvent = new FramePhaseEvent("window.render");
+        swapEvent.begin();
         window.render();
-        renderer.render(window, gridController.getCells(), gridController.getSize(), gridController.isPlacement());
+        swapEvent.commit();
+        FramePhaseEvent event = new FramePhaseEvent("render");
+        event.begin();
+        if(textureMode) {
+            textureRenderer.render(window, cells, gridController.getChanges(), gridController.getSize(), gridController.isPlacement());
+        } else {
+            renderer.render(window, cells, gridController.getChanges(), gridController.getSize(), gridController.isPlacement());
+        }
+        event.commit();
     }
 
     private void cleanUp() {
+        String frameTimes = System.getProperty(FRAME_TIMES_PROPERTY);
+        if(frameTimes != null) {
+            try {
+                frameTimer.writeCsv(Path.of(frameTimes));
+            } catch (IOException e) {
+                throw new RuntimeException("Couldn't save the frame times to " + frameTimes, e);
+            }
+        }
+        gridController.cleanUp();
         window.cleanUp();
         renderer.cleanUp();
+        textureRenderer.cleanUp();
     }
 }
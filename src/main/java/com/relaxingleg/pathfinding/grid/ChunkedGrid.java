@@ -0,0 +1,321 @@
+package com.relaxingleg.pathfinding.grid;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * An unbounded grid split into 64x64 tiles, where every cell starts empty and a tile only exists once it is touched
+ * Tiles that are all empty are dropped and tiles that are all blocked are kept as a flag, so only mixed tiles hold
+ * their bits. Only so many mixed tiles are kept in memory, the least recently used ones are written out to a page
+ * file and read back in when they are needed again, so memory depends on the area that was touched and not the world
+ * The search engines work on a Grid, so a window of the world is copied into one with materialise
+ * It isn't thread safe
+ * @author Matt
+ */
+public class ChunkedGrid implements Closeable {
+
+    public static final int TILE_SIZE = 64;
+    private static final int TILE_SHIFT = 6;
+    private static final int TILE_BYTES = TILE_SIZE*Long.BYTES;
+    private static final Tile FULL = new Tile();
+    private static final long[] EMPTY_WORDS = new long[TILE_SIZE];
+    private static final long[] FULL_WORDS = new long[TILE_SIZE];
+
+    static {
+        Arrays.fill(FULL_WORDS, -1L);
+    }
+
+    private final Map<Long, Tile> tiles = new HashMap<>();
+    private final Map<Long, Tile> resident;
+    private final Path pageDirectory;
+    private final ArrayDeque<Long> freePages = new ArrayDeque<>();
+    private final ByteBuffer pageBuffer = ByteBuffer.allocate(TILE_BYTES);
+    private FileChannel pageFile;
+    private long pageCount;
+    private long pageReads, pageWrites;
+
+    /**
+     * Creates an empty world that pages to a file in the temp directory
+     * @param maxResidentTiles The most mixed tiles to keep in memory at once
+     */
+    public ChunkedGrid(int maxResidentTiles) {
+        this(maxResidentTiles, null);
+    }
+
+    /**
+     * Creates an empty world, the page file is only made once a tile has to be written out and is deleted on close
+     * @param maxResidentTiles The most mixed tiles to keep in memory at once
+     * @param pageDirectory Where to put the page file, or null for the temp directory
+     */
+    public ChunkedGrid(int maxResidentTiles, Path pageDirectory) {
+        if(maxResidentTiles <= 0) throw new IllegalArgumentException("At least one tile must fit in memory, got " + maxResidentTiles);
+        this.pageDirectory = pageDirectory;
+        this.resident = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, Tile> eldest) {
+                if(size() <= maxResidentTiles) return false;
+                pageOut(eldest.getValue());
+                return true;
+            }
+        };
+    }
+
+    /**
+     * Checks if a cell is blocked, anywhere in the world can be asked about
+     * @param x The X coordinate of the cell
+     * @param y The Y coordinate of the cell
+     * @return If the cell is blocked
+     */
+    public boolean isBlocked(int x, int y) {
+        return (getTileRow(x >> TILE_SHIFT, y) >>> (x & (TILE_SIZE-1)) & 1) != 0;
+    }
+
+    /**
+     * Sets if a cell is blocked, making the tile if it didn't exist
+     * @param x The X coordinate of the cell
+     * @param y The Y coordinate of the cell
+     * @param blocked If the cell should be blocked
+     */
+    public void setBlocked(int x, int y, boolean blocked) {
+        if(isBlocked(x, y) == blocked) return;
+        long key = key(x >> TILE_SHIFT, y >> TILE_SHIFT);
+        Tile tile = tiles.get(key);
+        if(tile == null || tile == FULL) {
+            long[] words = new long[TILE_SIZE];
+            if(tile == FULL) Arrays.fill(words, -1L);
+            tile = new Tile();
+            tile.words = words;
+            tiles.put(key, tile);
+        }
+        long[] words = load(key, tile);
+        int row = y & (TILE_SIZE-1);
+        words[row] ^= 1L << (x & (TILE_SIZE-1));
+        compact(key, tile, words[row]);
+    }
+
+    /**
+     * Blocks or unblocks every cell in a rectangle, whole tiles inside it are set without being loaded
+     * @param x The X coordinate of the top left cell
+     * @param y The Y coordinate of the top left cell
+     * @param width The width of the rectangle
+     * @param height The height of the rectangle
+     * @param blocked If the cells should be blocked
+     */
+    public void fill(int x, int y, int width, int height, boolean blocked) {
+        int endX = x + width, endY = y + height;
+        for(int tileY = y >> TILE_SHIFT; tileY <= (endY-1) >> TILE_SHIFT; tileY++) {
+            for(int tileX = x >> TILE_SHIFT; tileX <= (endX-1) >> TILE_SHIFT; tileX++) {
+                int fromX = Math.max(x, tileX << TILE_SHIFT), toX = Math.min(endX, (tileX+1) << TILE_SHIFT);
+                int fromY = Math.max(y, tileY << TILE_SHIFT), toY = Math.min(endY, (tileY+1) << TILE_SHIFT);
+                long key = key(tileX, tileY);
+                if(toX - fromX == TILE_SIZE && toY - fromY == TILE_SIZE) {
+                    Tile old = blocked ? tiles.put(key, FULL) : tiles.remove(key);
+                    if(old != null) release(key, old);
+                    continue;
+                }
+                for(int cellY = fromY; cellY < toY; cellY++) {
+                    for(int cellX = fromX; cellX < toX; cellX++) {
+                        setBlocked(cellX, cellY, blocked);
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Copies a window of the world into a grid so it can be searched, nothing outside the window is copied
+     * It goes a band of 64 rows at a time and copies every row of a tile while it is loaded, so each tile is only read
+     * once even when the window is wider than the tiles that fit in memory
+     * @param x The X coordinate of the top left cell of the window
+     * @param y The Y coordinate of the top left cell of the window
+     * @param width The width of the window
+     * @param height The height of the window
+     * @return A grid where cell (0, 0) is cell (x, y) of the world
+     */
+    public Grid materialise(int x, int y, int width, int height) {
+        Grid grid = new Grid(width, height);
+        int wordsPerRow = grid.getObstacles().getWordsPerRow();
+        int offset = x & (TILE_SIZE-1);
+        // If the window doesn't start on the edge of a tile the top of each word comes from the next tile along
+        int tilesPerRow = offset == 0 ? wordsPerRow : wordsPerRow + 1;
+        long[][] band = new long[TILE_SIZE][wordsPerRow];
+        int endY = y + height;
+        for(int tileY = y >> TILE_SHIFT; tileY <= (endY-1) >> TILE_SHIFT; tileY++) {
+            int fromY = Math.max(y, tileY << TILE_SHIFT), toY = Math.min(endY, (tileY+1) << TILE_SHIFT);
+            for(int i = 0; i < tilesPerRow; i++) {
+                long[] words = getTileWords((x >> TILE_SHIFT) + i, tileY);
+                for(int worldY = fromY; worldY < toY; worldY++) {
+                    long word = words[worldY & (TILE_SIZE-1)];
+                    long[] row = band[worldY - fromY];
+                    if(i < wordsPerRow) row[i] = word >>> offset;
+                    if(i > 0 && offset != 0) row[i-1] |= word << (TILE_SIZE - offset);
+                }
+            }
+            for(int worldY = fromY; worldY < toY; worldY++) {
+                grid.setRow(worldY - y, band[worldY - fromY]);
+            }
+        }
+        return grid;
+    }
+
+    /**
+     * Getter for the amount of tiles that aren't all empty
+     * @return The amount of tiles
+     */
+    public int getTileCount() {
+        return tiles.size();
+    }
+
+    /**
+     * Getter for the amount of mixed tiles held in memory
+     * @return The amount of resident tiles
+     */
+    public int getResidentTileCount() {
+        return resident.size();
+    }
+
+    /**
+     * Getter for the amount of tiles read back from the page file
+     * @return The amount of page reads
+     */
+    public long getPageReads() {
+        return pageReads;
+    }
+
+    /**
+     * Getter for the amount of tiles written out to the page file
+     * @return The amount of page writes
+     */
+    public long getPageWrites() {
+        return pageWrites;
+    }
+
+    /**
+     * Closes and deletes the page file, the world can't be used after this
+     * @throws IOException If the file couldn't be closed
+     */
+    @Override
+    public void close() throws IOException {
+        tiles.clear();
+        resident.clear();
+        if(pageFile != null) pageFile.close();
+    }
+
+    /**
+     * Gets one row of a tile as a packed long, bit i is the cell at X coordinate tileX*64+i
+     */
+    private long getTileRow(int tileX, int y) {
+        return getTileWords(tileX, y >> TILE_SHIFT)[y & (TILE_SIZE-1)];
+    }
+
+    /**
+     * Gets every row of a tile, loading it if it is paged out, the array must not be changed
+     */
+    private long[] getTileWords(int tileX, int tileY) {
+        long key = key(tileX, tileY);
+        Tile tile = tiles.get(key);
+        if(tile == null) return EMPTY_WORDS;
+        if(tile == FULL) return FULL_WORDS;
+        return load(key, tile);
+    }
+
+    /**
+     * Turns a tile back into the compact forms if the row that just changed could have made it all empty or all blocked
+     */
+    private void compact(long key, Tile tile, long changedRow) {
+        if(changedRow != 0 && changedRow != -1L) return;
+        for(long word : tile.words) {
+            if(word != changedRow) return;
+        }
+        if(changedRow == 0) {
+            tiles.remove(key);
+        } else {
+            tiles.put(key, FULL);
+        }
+        release(key, tile);
+    }
+
+    private long[] load(long key, Tile tile) {
+        if(tile.words == null) pageIn(tile);
+        resident.put(key, tile);
+        return tile.words;
+    }
+
+    private void release(long key, Tile tile) {
+        if(tile == FULL) return;
+        resident.remove(key);
+        if(tile.page != -1) freePages.push(tile.page);
+    }
+
+    private void pageOut(Tile tile) {
+        try {
+            if(pageFile == null) {
+                Path file = pageDirectory == null ? Files.createTempFile("tiles", ".page")
+                        : Files.createTempFile(pageDirectory, "tiles", ".page");
+                pageFile = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE, StandardOpenOption.DELETE_ON_CLOSE);
+            }
+            if(tile.page == -1) tile.page = freePages.isEmpty() ? pageCount++ : freePages.pop();
+            pageBuffer.clear();
+            pageBuffer.asLongBuffer().put(tile.words);
+            long position = tile.page*TILE_BYTES;
+            while(pageBuffer.hasRemaining()) {
+                position += pageFile.write(pageBuffer, position);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Couldn't page out a tile", e);
+        }
+        tile.words = null;
+        pageWrites++;
+    }
+
+    private void pageIn(Tile tile) {
+        pageBuffer.clear();
+        try {
+            long position = tile.page*TILE_BYTES;
+            while(pageBuffer.hasRemaining()) {
+                int read = pageFile.read(pageBuffer, position);
+                if(read < 0) throw new IOException("Page file ends before page " + tile.page);
+                position += read;
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Couldn't page in a tile", e);
+        }
+        pageBuffer.flip();
+        tile.words = new long[TILE_SIZE];
+        pageBuffer.asLongBuffer().get(tile.words);
+        pageReads++;
+    }
+
+    /**
+     * Packs the tile coordinates into a key and mixes the bits, every step can be undone so the key stays unique
+     * Without that the hash of a long would be tileX ^ tileY, which puts every tile on a diagonal in the same bucket
+     */
+    private static long key(int tileX, int tileY) {
+        long key = (long)tileX << 32 | (tileY & 0xFFFFFFFFL);
+        key ^= key >>> 33;
+        key *= 0xFF51AFD7ED558CCDL;
+        key ^= key >>> 33;
+        return key;
+    }
+
+    /**
+     * A tile with some cells blocked, its bits are either in memory or in its page of the page file
+     * A page stays with its tile once written, so a tile that is paged out again only rewrites its own page
+     */
+    private static class Tile {
+
+        private long[] words;
+        private long page = -1;
+    }
+}
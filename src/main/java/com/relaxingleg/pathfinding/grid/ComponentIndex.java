@@ -0,0 +1,337 @@
+package com.relaxingleg.pathfinding.grid;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+
+/**
+ * Labels every walkable cell with the connected component it is in, so a search between two cells that can't reach
+ * each other can be turned down straight away instead of exploring everything the start can reach
+ * Each cell has a label, and the labels are joined with a union find, so unblocking a cell just joins the labels
+ * around it. Blocking a cell only has to do anything if the cells around it aren't still joined to each other around
+ * it, and then only the component it was in is labelled again
+ * It is built with a union find over bands of rows in parallel, and is then kept up to date by listening to the grid
+ * Moves are the same as the engines, any walkable neighbour including diagonals
+ * @author Matt
+ */
+public class ComponentIndex implements GridListener {
+
+    private static final int BLOCKED = -1;
+    private static final int ROWS_PER_BAND = 64;
+    // The 8 cells around a cell, going round in order so the ones next to each other in the array touch
+    private static final int[] RING_X = {-1, 0, 1, 1, 1, 0, -1, -1};
+    private static final int[] RING_Y = {-1, -1, -1, 0, 1, 1, 1, 0};
+    private final Grid grid;
+    private final ForkJoinPool pool;
+    private final int[] labels;
+    private int[] labelParents;
+    private int labelCount;
+    // Cells around a cell can be in at most 4 groups, when only the corners are walkable
+    private final int[] groupLabels = new int[4];
+    private final int[][] queues = new int[4][64];
+    private final int[] heads = new int[4];
+    private final int[] tails = new int[4];
+
+    /**
+     * Builds the index on the common pool and starts listening to the grid
+     * @param grid The grid to label
+     */
+    public ComponentIndex(Grid grid) {
+        this(grid, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Builds the index and starts listening to the grid
+     * @param grid The grid to label
+     * @param pool The pool to build on, bands of rows are labelled at the same time
+     */
+    public ComponentIndex(Grid grid, ForkJoinPool pool) {
+        this.grid = grid;
+        this.pool = pool;
+        this.labels = new int[grid.getCellCount()];
+        rebuild();
+        grid.addListener(this);
+    }
+
+    /**
+     * Checks if there is a path between two cells, in constant time
+     * It can be called from several threads at once as long as the grid isn't changing
+     * @param x1 The X coordinate of the first cell
+     * @param y1 The Y coordinate of the first cell
+     * @param x2 The X coordinate of the second cell
+     * @param y2 The Y coordinate of the second cell
+     * @return If both cells are walkable and in the same component
+     */
+    public boolean isConnected(int x1, int y1, int x2, int y2) {
+        if(!grid.isWalkable(x1, y1) || !grid.isWalkable(x2, y2)) return false;
+        return getComponent(grid.index(x1, y1)) == getComponent(grid.index(x2, y2));
+    }
+
+    /**
+     * Gets the component of a cell, two cells have the same component if and only if there is a path between them
+     * The numbers can change when the grid does
+     * @param cell The index of the cell
+     * @return The component, or -1 if the cell is blocked
+     */
+    public int getComponent(int cell) {
+        int label = labels[cell];
+        return label == BLOCKED ? BLOCKED : find(label);
+    }
+
+    /**
+     * Labels the whole grid again, faster than listening to lots of changes one cell at a time
+     * The listener can be removed while lots of cells change, then this is called and it is added back
+     */
+    public void rebuild() {
+        PreprocessEvent event = new PreprocessEvent("components", grid);
+        event.begin();
+        int cellCount = labels.length;
+        int bandCount = (grid.getHeight() + ROWS_PER_BAND - 1) / ROWS_PER_BAND;
+        // Each band only joins cells inside itself, so they can't get in each other's way
+        List<ForkJoinTask<?>> tasks = new ArrayList<>(bandCount);
+        for(int band = 0; band < bandCount; band++) {
+            int fromY = band*ROWS_PER_BAND;
+            int toY = Math.min(fromY + ROWS_PER_BAND, grid.getHeight());
+            tasks.add(pool.submit(() -> labelBand(fromY, toY)));
+        }
+        for(ForkJoinTask<?> task : tasks) {
+            task.join();
+        }
+        for(int y = ROWS_PER_BAND; y < grid.getHeight(); y += ROWS_PER_BAND) {
+            for(int x = 0; x < grid.getWidth(); x++) {
+                if(grid.isWalkable(x, y)) joinAbove(x, y);
+            }
+        }
+        // Point every cell straight at its root, after this the roots are the labels
+        tasks.clear();
+        for(int band = 0; band < bandCount; band++) {
+            int from = band*ROWS_PER_BAND*grid.getWidth();
+            int to = Math.min(from + ROWS_PER_BAND*grid.getWidth(), cellCount);
+            tasks.add(pool.submit(() -> {
+                for(int cell = from; cell < to; cell++) {
+                    if(labels[cell] != BLOCKED) labels[cell] = findCell(cell);
+                }
+            }));
+        }
+        for(ForkJoinTask<?> task : tasks) {
+            task.join();
+        }
+        labelParents = new int[Math.max(cellCount, 16)];
+        for(int i = 0; i < labelParents.length; i++) {
+            labelParents[i] = i;
+        }
+        labelCount = cellCount;
+        event.commit();
+    }
+
+    @Override
+    public void cellChanged(int x, int y, boolean blocked) {
+        // Labels are never reused, so when there are too many everything is labelled again from scratch
+        if(labelCount >= labels.length*2) {
+            rebuild();
+            return;
+        }
+        int cell = grid.index(x, y);
+        if(!blocked) {
+            labels[cell] = newLabel();
+            for(int i = 0; i < RING_X.length; i++) {
+                int neighbourX = x + RING_X[i], neighbourY = y + RING_Y[i];
+                if(grid.isWalkable(neighbourX, neighbourY)) union(labels[cell], labels[grid.index(neighbourX, neighbourY)]);
+            }
+            return;
+        }
+        int oldComponent = getComponent(cell);
+        labels[cell] = BLOCKED;
+        if(oldComponent == BLOCKED) return;
+
+        // Cells around it that touch each other are still joined, so if they are all one group nothing was split
+        int walkable = 0;
+        for(int i = 0; i < RING_X.length; i++) {
+            if(grid.isWalkable(x + RING_X[i], y + RING_Y[i])) walkable |= 1 << i;
+        }
+        if(walkable == 0) return;
+        int lastGroup = ringGroup(walkable, 31 - Integer.numberOfLeadingZeros(walkable));
+        if(lastGroup == walkable) return;
+
+        split(walkable, x, y, oldComponent);
+    }
+
+    @Override
+    public void gridCleared() {
+        Arrays.fill(labels, 0);
+        labelParents = new int[Math.max(labels.length, 16)];
+        for(int i = 0; i < labelParents.length; i++) {
+            labelParents[i] = i;
+        }
+        labelCount = 1;
+    }
+
+    /**
+     * Unions a band of rows, using the cell indices as the labels
+     */
+    private void labelBand(int fromY, int toY) {
+        for(int y = fromY; y < toY; y++) {
+            for(int x = 0; x < grid.getWidth(); x++) {
+                int cell = grid.index(x, y);
+                if(!grid.isWalkable(x, y)) {
+                    labels[cell] = BLOCKED;
+                    continue;
+                }
+                labels[cell] = cell;
+                if(grid.isWalkable(x - 1, y)) unionCells(cell, cell - 1);
+                if(y > fromY) joinAbove(x, y);
+            }
+        }
+    }
+
+    private void joinAbove(int x, int y) {
+        int cell = grid.index(x, y);
+        for(int dx = -1; dx < 2; dx++) {
+            if(grid.isWalkable(x + dx, y - 1)) unionCells(cell, grid.index(x + dx, y - 1));
+        }
+    }
+
+    /**
+     * Finds every walkable cell around a cell that can be reached from one of them without going through the middle
+     */
+    private static int ringGroup(int walkable, int start) {
+        int group = 1 << start;
+        int added = group;
+        while(added != 0) {
+            int next = 0;
+            for(int i = 0; i < RING_X.length; i++) {
+                if((added & 1 << i) == 0) continue;
+                for(int j = 0; j < RING_X.length; j++) {
+                    if((walkable & 1 << j) != 0 && (group & 1 << j) == 0
+                            && Math.abs(RING_X[i] - RING_X[j]) <= 1 && Math.abs(RING_Y[i] - RING_Y[j]) <= 1) {
+                        next |= 1 << j;
+                    }
+                }
+            }
+            group |= next;
+            added = next;
+        }
+        return group;
+    }
+
+    /**
+     * Gives each group of cells around a blocked cell a new label and floods out from all of them in turn
+     * Groups that meet are the same piece, and as soon as only one piece is still growing it must be everything that
+     * is left, so it just joins back up with the old label
+     * This means a split only costs about as much as the smaller pieces, even if the other one is most of the grid
+     */
+    private void split(int walkable, int x, int y, int component) {
+        int groupCount = 0;
+        for(int remaining = walkable; remaining != 0; groupCount++) {
+            int group = ringGroup(walkable, Integer.numberOfTrailingZeros(remaining));
+            remaining &= ~group;
+            groupLabels[groupCount] = newLabel();
+            heads[groupCount] = 0;
+            tails[groupCount] = 0;
+            for(int i = 0; i < RING_X.length; i++) {
+                if((group & 1 << i) == 0) continue;
+                int cell = grid.index(x + RING_X[i], y + RING_Y[i]);
+                labels[cell] = groupLabels[groupCount];
+                push(groupCount, cell);
+            }
+        }
+        while(getGrowingPieces(groupCount) > 1) {
+            for(int group = 0; group < groupCount; group++) {
+                if(heads[group] == tails[group]) continue;
+                int cell = queues[group][heads[group]++];
+                int root = find(labels[cell]);
+                int cellX = grid.getX(cell), cellY = grid.getY(cell);
+                for(int i = 0; i < RING_X.length; i++) {
+                    int neighbourX = cellX + RING_X[i], neighbourY = cellY + RING_Y[i];
+                    if(!grid.isWalkable(neighbourX, neighbourY)) continue;
+                    int neighbour = grid.index(neighbourX, neighbourY);
+                    int neighbourRoot = find(labels[neighbour]);
+                    if(neighbourRoot == component) {
+                        labels[neighbour] = root;
+                        push(group, neighbour);
+                    } else if(neighbourRoot != root) {
+                        union(root, neighbourRoot);
+                        root = find(root);
+                    }
+                }
+            }
+        }
+        for(int group = 0; group < groupCount; group++) {
+            if(heads[group] != tails[group]) union(groupLabels[group], component);
+        }
+    }
+
+    private int getGrowingPieces(int groupCount) {
+        int pieces = 0;
+        for(int group = 0; group < groupCount; group++) {
+            if(heads[group] == tails[group]) continue;
+            int root = find(groupLabels[group]);
+            boolean counted = false;
+            for(int other = 0; other < group; other++) {
+                if(heads[other] != tails[other] && find(groupLabels[other]) == root) counted = true;
+            }
+            if(!counted) pieces++;
+        }
+        return pieces;
+    }
+
+    private void push(int group, int cell) {
+        if(tails[group] == queues[group].length) queues[group] = Arrays.copyOf(queues[group], tails[group]*2);
+        queues[group][tails[group]++] = cell;
+    }
+
+    private int newLabel() {
+        if(labelCount == labelParents.length) {
+            int oldLength = labelParents.length;
+            labelParents = Arrays.copyOf(labelParents, oldLength*2);
+            for(int i = oldLength; i < labelParents.length; i++) {
+                labelParents[i] = i;
+            }
+        }
+        return labelCount++;
+    }
+
+    /**
+     * Finds the root label, halving the path on the way so later finds are quicker
+     */
+    private int find(int label) {
+        while(labelParents[label] != label) {
+            labelParents[label] = labelParents[labelParents[label]];
+            label = labelParents[label];
+        }
+        return label;
+    }
+
+    private void union(int label1, int label2) {
+        int root1 = find(label1);
+        int root2 = find(label2);
+        if(root1 < root2) {
+            labelParents[root2] = root1;
+        } else if(root2 < root1) {
+            labelParents[root1] = root2;
+        }
+    }
+
+    /**
+     * The same as find and union but while building, when the labels array is still the union find of the cells
+     */
+    private int findCell(int cell) {
+        while(labels[cell] != cell) {
+            labels[cell] = labels[labels[cell]];
+            cell = labels[cell];
+        }
+        return cell;
+    }
+
+    private void unionCells(int cell1, int cell2) {
+        int root1 = findCell(cell1);
+        int root2 = findCell(cell2);
+        if(root1 < root2) {
+            labels[root2] = root1;
+        } else if(root2 < root1) {
+            labels[root1] = root2;
+        }
+    }
+}
@@ -0,0 +1,242 @@
+package com.relaxingleg.pathfinding.grid;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * This class stores which cells of a grid are blocked, using a packed obstacle bitmap
+ * A second transposed copy of the bitmap is kept so columns can be scanned as fast as rows
+ * It doesn't depend on any rendering code so it can be used headless
+ * @author Matt
+ */
+public class Grid {
+
+    private final int width, height;
+    private final ObstacleMap obstacles;
+    private final ObstacleMap columns;
+    private final List<GridListener> listeners = new ArrayList<>();
+    private long version;
+
+    /**
+     * Creates an empty grid
+     * @param width The width of the grid in cells
+     * @param height The height of the grid in cells
+     */
+    public Grid(int width, int height) {
+        if(width <= 0 || height <= 0) {
+            throw new IllegalArgumentException("Grid size must be positive, got " + width + "x" + height);
+        }
+        this.width = width;
+        this.height = height;
+        this.obstacles = new ObstacleMap(width, height);
+        this.columns = new ObstacleMap(height, width);
+    }
+
+    /**
+     * Checks if a position is inside the grid
+     * @param x The X coordinate
+     * @param y The Y coordinate
+     * @return If the position is inside the grid
+     */
+    public boolean contains(int x, int y) {
+        return x >= 0 && y >= 0 && x < width && y < height;
+    }
+
+    /**
+     * Checks if a cell is blocked
+     * @param x The X coordinate of the cell
+     * @param y The Y coordinate of the cell
+     * @return If the cell is blocked
+     */
+    public boolean isBlocked(int x, int y) {
+        return obstacles.get(x, y);
+    }
+
+    /**
+     * Checks if a cell can be walked through, anything outside the grid can't be
+     * @param x The X coordinate of the cell
+     * @param y The Y coordinate of the cell
+     * @return If the cell is inside the grid and not blocked
+     */
+    public boolean isWalkable(int x, int y) {
+        return contains(x, y) && !obstacles.get(x, y);
+    }
+
+    /**
+     * Sets if a cell is blocked
+     * @param x The X coordinate of the cell
+     * @param y The Y coordinate of the cell
+     * @param blocked If the cell should be blocked
+     * @throws IllegalArgumentException If the cell is outside the grid
+     */
+    public void setBlocked(int x, int y, boolean blocked) {
+        checkContains(x, y);
+        if(obstacles.get(x, y) == blocked) return;
+        obstacles.set(x, y, blocked);
+        columns.set(y, x, blocked);
+        version++;
+        for(GridListener listener : listeners) {
+            listener.cellChanged(x, y, blocked);
+        }
+    }
+
+    /**
+     * Will block an empty cell or unblock a blocked one
+     * @param x The X coordinate of the cell
+     * @param y The Y coordinate of the cell
+     * @return If the cell is now blocked
+     * @throws IllegalArgumentException If the cell is outside the grid
+     */
+    public boolean toggle(int x, int y) {
+        checkContains(x, y);
+        columns.toggle(y, x);
+        boolean blocked = obstacles.toggle(x, y);
+        version++;
+        for(GridListener listener : listeners) {
+            listener.cellChanged(x, y, blocked);
+        }
+        return blocked;
+    }
+
+    /**
+     * Replaces a whole row at once from packed bits, much faster than setting the cells one at a time
+     * Listeners are still told about every cell that changed
+     * @param y The Y coordinate of the row
+     * @param rowWords The packed row, bit i of long j is the cell at X coordinate j*64+i, as in the obstacle bitmap
+     * @throws IllegalArgumentException If the row is outside the grid or too short
+     */
+    public void setRow(int y, long[] rowWords) {
+        checkContains(0, y);
+        if(rowWords.length < obstacles.getWordsPerRow()) {
+            throw new IllegalArgumentException("Row needs " + obstacles.getWordsPerRow() + " longs, got " + rowWords.length);
+        }
+        for(int wordIndex = 0; wordIndex < obstacles.getWordsPerRow(); wordIndex++) {
+            long old = obstacles.getWord(y, wordIndex);
+            obstacles.setWord(y, wordIndex, rowWords[wordIndex]);
+            long difference = old ^ obstacles.getWord(y, wordIndex);
+            while(difference != 0) {
+                int x = wordIndex*64 + Long.numberOfTrailingZeros(difference);
+                difference &= difference - 1;
+                boolean blocked = columns.toggle(y, x);
+                version++;
+                for(GridListener listener : listeners) {
+                    listener.cellChanged(x, y, blocked);
+                }
+            }
+        }
+    }
+
+    /**
+     * Unblocks every cell
+     */
+    public void clear() {
+        obstacles.clearAll();
+        columns.clearAll();
+        version++;
+        for(GridListener listener : listeners) {
+            listener.gridCleared();
+        }
+    }
+
+    /**
+     * Adds a listener that gets told when cells change
+     * @param listener The listener to add
+     */
+    public void addListener(GridListener listener) {
+        listeners.add(listener);
+    }
+
+    /**
+     * Removes a listener that was added before
+     * @param listener The listener to remove
+     */
+    public void removeListener(GridListener listener) {
+        listeners.remove(listener);
+    }
+
+    /**
+     * Turns a position into the index of the cell
+     * @param x The X coordinate of the cell
+     * @param y The Y coordinate of the cell
+     * @return The cell index
+     */
+    public int index(int x, int y) {
+        return y*width + x;
+    }
+
+    /**
+     * Gets the X coordinate of a cell index
+     * @param index The cell index
+     * @return The X coordinate
+     */
+    public int getX(int index) {
+        return index % width;
+    }
+
+    /**
+     * Gets the Y coordinate of a cell index
+     * @param index The cell index
+     * @return The Y coordinate
+     */
+    public int getY(int index) {
+        return index / width;
+    }
+
+    /**
+     * Getter for the grid width
+     * @return Grid width
+     */
+    public int getWidth() {
+        return width;
+    }
+
+    /**
+     * Getter for the grid height
+     * @return Grid height
+     */
+    public int getHeight() {
+        return height;
+    }
+
+    /**
+     * Gets the amount of cells in the grid
+     * @return Width times height
+     */
+    public int getCellCount() {
+        return width*height;
+    }
+
+    /**
+     * Gets a number that goes up every time a cell changes, so results can be checked against the grid they came from
+     * @return The grid version
+     */
+    public long getVersion() {
+        return version;
+    }
+
+    /**
+     * Getter for the obstacle bitmap
+     * @return The obstacle bitmap
+     */
+    public ObstacleMap getObstacles() {
+        return obstacles;
+    }
+
+    /**
+     * Getter for the transposed obstacle bitmap, its rows are the columns of the grid
+     * @return The transposed obstacle bitmap
+     */
+    public ObstacleMap getColumns() {
+        return columns;
+    }
+
+    /**
+     * Makes sure a cell is inside the grid before either bitmap is changed, the obstacle bitmap has spare bits at the
+     * end of each row that would otherwise be set without an error, and the bitmaps would no longer match
+     */
+    private void checkContains(int x, int y) {
+        if(!contains(x, y)) {
+            throw new IllegalArgumentException("Cell (" + x + ", " + y + ") is outside the " + width + "x" + height + " grid");
+        }
+    }
+}
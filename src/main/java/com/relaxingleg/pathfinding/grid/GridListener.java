@@ -0,0 +1,21 @@
+package com.relaxingleg.pathfinding.grid;
+
+/**
+ * Gets told when the cells of a grid change, so anything built from the grid can be repaired
+ * @author Matt
+ */
+public interface GridListener {
+
+    /**
+     * Called after a cell is blocked or unblocked
+     * @param x The X coordinate of the cell
+     * @param y The Y coordinate of the cell
+     * @param blocked If the cell is now blocked
+     */
+    void cellChanged(int x, int y, boolean blocked);
+
+    /**
+     * Called after every cell of the grid is unblocked at once
+     */
+    void gridCleared();
+}
@@ -0,0 +1,266 @@
+package com.relaxingleg.pathfinding.grid;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.zip.CRC32;
+
+/**
+ * A grid and any cost layers that go with it, which can be saved to and loaded from a compact binary format
+ * Both ways stream through a small buffer, so a huge grid is never held in memory twice
+ * <p>
+ * The format is a header of the magic "PFGS", the version, the width, the height and the amount of cost layers,
+ * followed by a CRC32 of the header. Each obstacle row is then stored as run lengths that take turns between walkable
+ * and blocked cells, starting with walkable. Each cost layer row is stored as pairs of a run length and a cost.
+ * All the numbers after the header are varints, and the body ends with a CRC32 of itself, since it can't be known
+ * until everything has been written
+ * @param grid The grid
+ * @param costLayers Extra costs for each cell, one int per cell at the same index as in the grid, can be empty
+ * @author Matt
+ */
+public record GridSnapshot(Grid grid, List<int[]> costLayers) {
+
+    private static final int MAGIC = 'P' << 24 | 'F' << 16 | 'G' << 8 | 'S';
+    private static final int VERSION = 1;
+    private static final int HEADER_SIZE = 20;
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    public GridSnapshot {
+        costLayers = List.copyOf(costLayers);
+        long cells = (long)grid.getWidth()*grid.getHeight();
+        for(int[] layer : costLayers) {
+            if(layer.length != cells) {
+                throw new IllegalArgumentException("Cost layer has " + layer.length + " cells, the grid has " + cells);
+            }
+        }
+    }
+
+    /**
+     * Creates a snapshot of a grid without any cost layers
+     * @param grid The grid
+     */
+    public GridSnapshot(Grid grid) {
+        this(grid, List.of());
+    }
+
+    /**
+     * Writes the snapshot to a channel, the channel isn't closed
+     * @param channel Where to write to
+     * @throws IOException If the channel can't be written to
+     */
+    public void write(WritableByteChannel channel) throws IOException {
+        ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE + 4);
+        header.putInt(MAGIC).putInt(VERSION).putInt(grid.getWidth()).putInt(grid.getHeight()).putInt(costLayers.size());
+        CRC32 headerChecksum = new CRC32();
+        headerChecksum.update(header.array(), 0, HEADER_SIZE);
+        header.putInt((int)headerChecksum.getValue());
+        header.flip();
+        writeFully(channel, header);
+
+        Writer writer = new Writer(channel);
+        ObstacleMap obstacles = grid.getObstacles();
+        int width = grid.getWidth();
+        for(int y = 0; y < grid.getHeight(); y++) {
+            int x = 0;
+            while(x < width) {
+                int blockedFrom = obstacles.nextBlocked(y, x);
+                int clearFrom = obstacles.nextClear(y, blockedFrom);
+                writer.putVarint(blockedFrom - x);
+                if(blockedFrom < width) writer.putVarint(clearFrom - blockedFrom);
+                x = clearFrom;
+            }
+        }
+        for(int[] layer : costLayers) {
+            for(int y = 0; y < grid.getHeight(); y++) {
+                int rowStart = y*width;
+                int x = 0;
+                while(x < width) {
+                    int cost = layer[rowStart + x];
+                    int end = x + 1;
+                    while(end < width && layer[rowStart + end] == cost) end++;
+                    writer.putVarint(end - x);
+                    writer.putVarint(cost);
+                    x = end;
+                }
+            }
+        }
+        writer.finish();
+    }
+
+    /**
+     * Reads a snapshot from a channel, the obstacle rows are written straight into the packed rows of a new grid
+     * The channel isn't closed, but it may have been read past the end of the snapshot
+     * @param channel Where to read from
+     * @return The snapshot
+     * @throws IOException If the channel can't be read, or doesn't hold a valid snapshot
+     */
+    public static GridSnapshot read(ReadableByteChannel channel) throws IOException {
+        ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE + 4);
+        readFully(channel, header);
+        header.flip();
+        if(header.getInt() != MAGIC) throw new IOException("Not a grid snapshot");
+        int version = header.getInt();
+        if(version != VERSION) throw new IOException("Unsupported grid snapshot version " + version);
+        int width = header.getInt();
+        int height = header.getInt();
+        int layerCount = header.getInt();
+        CRC32 headerChecksum = new CRC32();
+        headerChecksum.update(header.array(), 0, HEADER_SIZE);
+        if(header.getInt() != (int)headerChecksum.getValue()) throw new IOException("Grid snapshot header is corrupt");
+        if(width <= 0 || height <= 0 || layerCount < 0) {
+            throw new IOException("Grid snapshot has a bad size " + width + "x" + height + " with " + layerCount + " cost layers");
+        }
+        if(layerCount > 0 && (long)width*height > Integer.MAX_VALUE) {
+            throw new IOException("Grid snapshot is too big to hold cost layers");
+        }
+
+        Reader reader = new Reader(channel);
+        Grid grid = new Grid(width, height);
+        long[] row = new long[grid.getObstacles().getWordsPerRow()];
+        for(int y = 0; y < height; y++) {
+            Arrays.fill(row, 0);
+            int x = 0;
+            boolean blocked = false;
+            while(x < width) {
+                int end = x + reader.getVarint();
+                if(end > width || end < x) throw new IOException("Obstacle row " + y + " is longer than the width");
+                if(blocked) setBits(row, x, end);
+                blocked = !blocked;
+                x = end;
+            }
+            grid.setRow(y, row);
+        }
+        List<int[]> costLayers = new ArrayList<>(layerCount);
+        for(int i = 0; i < layerCount; i++) {
+            int[] layer = new int[width*height];
+            for(int y = 0; y < height; y++) {
+                int rowStart = y*width;
+                int x = 0;
+                while(x < width) {
+                    int end = x + reader.getVarint();
+                    if(end > width || end <= x) throw new IOException("Cost layer " + i + " row " + y + " has a bad run");
+                    int cost = reader.getVarint();
+                    for(int j = x; j < end; j++) {
+                        layer[rowStart + j] = cost;
+                    }
+                    x = end;
+                }
+            }
+            costLayers.add(layer);
+        }
+        reader.finish();
+        return new GridSnapshot(grid, costLayers);
+    }
+
+    private static void setBits(long[] row, int from, int to) {
+        for(int x = from; x < to; ) {
+            int wordIndex = x >>> 6;
+            int wordEnd = Math.min(to, (wordIndex + 1) << 6);
+            long mask = -1L << x;
+            if((wordEnd & 63) != 0) mask &= (1L << wordEnd) - 1;
+            row[wordIndex] |= mask;
+            x = wordEnd;
+        }
+    }
+
+    private static void writeFully(WritableByteChannel channel, ByteBuffer buffer) throws IOException {
+        while(buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+    }
+
+    private static void readFully(ReadableByteChannel channel, ByteBuffer buffer) throws IOException {
+        while(buffer.hasRemaining()) {
+            if(channel.read(buffer) < 0) throw new EOFException("Grid snapshot ends early");
+        }
+    }
+
+    /**
+     * Buffers the body on its way to the channel and keeps a checksum of it
+     */
+    private static class Writer {
+
+        private final WritableByteChannel channel;
+        private final ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE);
+        private final CRC32 checksum = new CRC32();
+
+        private Writer(WritableByteChannel channel) {
+            this.channel = channel;
+        }
+
+        private void putVarint(int value) throws IOException {
+            if(buffer.remaining() < 5) flush();
+            while((value & ~0x7F) != 0) {
+                buffer.put((byte)(value & 0x7F | 0x80));
+                value >>>= 7;
+            }
+            buffer.put((byte)value);
+        }
+
+        private void flush() throws IOException {
+            checksum.update(buffer.array(), 0, buffer.position());
+            buffer.flip();
+            writeFully(channel, buffer);
+            buffer.clear();
+        }
+
+        private void finish() throws IOException {
+            flush();
+            buffer.putInt((int)checksum.getValue());
+            buffer.flip();
+            writeFully(channel, buffer);
+            buffer.clear();
+        }
+    }
+
+    /**
+     * Buffers the body on its way from the channel and keeps a checksum of it
+     */
+    private static class Reader {
+
+        private final ReadableByteChannel channel;
+        private final ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE).flip();
+        private final CRC32 checksum = new CRC32();
+        private int checked;
+
+        private Reader(ReadableByteChannel channel) {
+            this.channel = channel;
+        }
+
+        private int getVarint() throws IOException {
+            int value = 0;
+            for(int shift = 0; shift < 35; shift += 7) {
+                if(!buffer.hasRemaining()) refill();
+                byte b = buffer.get();
+                value |= (b & 0x7F) << shift;
+                if(b >= 0) return value;
+            }
+            throw new IOException("Grid snapshot has a varint that is too long");
+        }
+
+        private void refill() throws IOException {
+            checksum.update(buffer.array(), checked, buffer.position() - checked);
+            buffer.clear();
+            while(buffer.position() == 0) {
+                if(channel.read(buffer) < 0) throw new EOFException("Grid snapshot ends early");
+            }
+            buffer.flip();
+            checked = 0;
+        }
+
+        private void finish() throws IOException {
+            checksum.update(buffer.array(), checked, buffer.position() - checked);
+            ByteBuffer trailer = ByteBuffer.allocate(4);
+            int left = Math.min(buffer.remaining(), 4);
+            trailer.put(buffer.array(), buffer.position(), left);
+            readFully(channel, trailer);
+            trailer.flip();
+            if(trailer.getInt() != (int)checksum.getValue()) throw new IOException("Grid snapshot is corrupt");
+        }
+    }
+}
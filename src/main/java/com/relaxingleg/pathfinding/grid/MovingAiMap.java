@@ -0,0 +1,160 @@
+package com.relaxingleg.pathfinding.grid;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/**
+ * Loads maps in the MovingAI benchmark format, a short text header followed by one line of characters per row
+ * The file is memory mapped and parsed straight from the mapped bytes into packed rows, so no strings are made
+ * '.', 'G' and 'S' are walkable, everything else ('@', 'O', 'T', 'W') is blocked
+ * @author Matt
+ */
+public class MovingAiMap {
+
+    private static final int BLOCKED = 1;
+    private static final int LINE_END = 2;
+    private static final int[] CHARACTERS = new int[256];
+
+    static {
+        Arrays.fill(CHARACTERS, BLOCKED);
+        CHARACTERS['.'] = 0;
+        CHARACTERS['G'] = 0;
+        CHARACTERS['S'] = 0;
+        CHARACTERS['\n'] = BLOCKED | LINE_END;
+        CHARACTERS['\r'] = BLOCKED | LINE_END;
+    }
+
+    private final MappedByteBuffer buffer;
+    private int position;
+    private int line = 1;
+
+    private MovingAiMap(MappedByteBuffer buffer) {
+        this.buffer = buffer;
+    }
+
+    /**
+     * Loads a map file into a new grid
+     * @param file The .map file
+     * @return The grid, with every cell that isn't walkable blocked
+     * @throws IOException If the file can't be read or isn't a valid map
+     */
+    public static Grid load(Path file) throws IOException {
+        try(FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            if(channel.size() > Integer.MAX_VALUE) {
+                throw new IOException("Map file " + file + " is too big to map, it is " + channel.size() + " bytes");
+            }
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            return new MovingAiMap(buffer).parse();
+        }
+    }
+
+    private Grid parse() throws IOException {
+        int width = -1, height = -1;
+        while(true) {
+            skipWhitespace();
+            if(matchWord("type")) {
+                skipLine();
+            } else if(matchWord("height")) {
+                height = readInt();
+            } else if(matchWord("width")) {
+                width = readInt();
+            } else if(matchWord("map")) {
+                skipLine();
+                break;
+            } else {
+                throw error("Unknown header line");
+            }
+        }
+        if(width <= 0 || height <= 0) throw error("Header is missing a positive width and height");
+
+        Grid grid = new Grid(width, height);
+        long[] row = new long[grid.getObstacles().getWordsPerRow()];
+        byte[] chars = new byte[width];
+        for(int y = 0; y < height; y++) {
+            if(position + width > buffer.limit()) throw error("Row " + y + " is cut short");
+            // One bulk copy per row is much faster than reading the mapped buffer a byte at a time
+            buffer.get(position, chars);
+            // Looked up without branching, since the blocked cells of a map are too random to predict
+            int seen = 0;
+            for(int wordIndex = 0; wordIndex < row.length; wordIndex++) {
+                int start = wordIndex*64;
+                int end = Math.min(start + 64, width);
+                long word = 0;
+                for(int x = start; x < end; x++) {
+                    int character = CHARACTERS[chars[x] & 0xFF];
+                    word |= (long)(character & BLOCKED) << x;
+                    seen |= character;
+                }
+                row[wordIndex] = word;
+            }
+            if((seen & LINE_END) != 0) throw error("Row " + y + " is shorter than the width");
+            position += width;
+            grid.setRow(y, row);
+            endLine(y);
+        }
+        return grid;
+    }
+
+    /**
+     * Moves past the end of a row, which has to be a new line or the end of the file
+     */
+    private void endLine(int y) throws IOException {
+        if(position < buffer.limit() && buffer.get(position) == '\r') position++;
+        if(position < buffer.limit()) {
+            if(buffer.get(position) != '\n') throw error("Row " + y + " is longer than the width");
+            position++;
+        }
+        line++;
+    }
+
+    private boolean matchWord(String word) {
+        int end = position + word.length();
+        if(end > buffer.limit()) return false;
+        for(int i = 0; i < word.length(); i++) {
+            if(buffer.get(position + i) != word.charAt(i)) return false;
+        }
+        if(end < buffer.limit() && buffer.get(end) > ' ') return false;
+        position = end;
+        return true;
+    }
+
+    private int readInt() throws IOException {
+        while(position < buffer.limit() && (buffer.get(position) == ' ' || buffer.get(position) == '\t')) {
+            position++;
+        }
+        long value = 0;
+        int start = position;
+        while(position < buffer.limit() && buffer.get(position) >= '0' && buffer.get(position) <= '9') {
+            value = value*10 + buffer.get(position++) - '0';
+            if(value > Integer.MAX_VALUE) throw error("Number is too big");
+        }
+        if(position == start) throw error("Expected a number");
+        return (int)value;
+    }
+
+    private void skipWhitespace() throws IOException {
+        while(position < buffer.limit() && buffer.get(position) <= ' ') {
+            if(buffer.get(position) == '\n') line++;
+            position++;
+        }
+        if(position == buffer.limit()) throw error("Header ends before the map");
+    }
+
+    private void skipLine() {
+        while(position < buffer.limit() && buffer.get(position) != '\n') {
+            position++;
+        }
+        if(position < buffer.limit()) {
+            position++;
+            line++;
+        }
+    }
+
+    private IOException error(String message) {
+        return new IOException(message + " on line " + line);
+    }
+}
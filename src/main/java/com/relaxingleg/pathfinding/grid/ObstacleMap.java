@@ -0,0 +1,243 @@
+package com.relaxingleg.pathfinding.grid;
+
+import java.util.Arrays;
+
+/**
+ * A bitmap of blocked cells packed into longs, one bit per cell
+ * Every row starts on a new long so a row span can be checked 64 cells at a time
+ * @author Matt
+ */
+public class ObstacleMap {
+
+    private static final int WORD_BITS = 64;
+    private final int width, height;
+    private final int wordsPerRow;
+    private final long[] words;
+
+    /**
+     * Creates a map with nothing blocked
+     * @param width The width of the map in cells
+     * @param height The height of the map in cells
+     */
+    public ObstacleMap(int width, int height) {
+        this.width = width;
+        this.height = height;
+        this.wordsPerRow = (width + WORD_BITS - 1) / WORD_BITS;
+        this.words = new long[wordsPerRow * height];
+    }
+
+    /**
+     * Checks if a cell is blocked
+     * @param x The X coordinate of the cell
+     * @param y The Y coordinate of the cell
+     * @return If the cell is blocked
+     */
+    public boolean get(int x, int y) {
+        return (words[y*wordsPerRow + (x >>> 6)] & (1L << x)) != 0;
+    }
+
+    /**
+     * Blocks a cell
+     * @param x The X coordinate of the cell
+     * @param y The Y coordinate of the cell
+     */
+    public void set(int x, int y) {
+        words[y*wordsPerRow + (x >>> 6)] |= 1L << x;
+    }
+
+    /**
+     * Unblocks a cell
+     * @param x The X coordinate of the cell
+     * @param y The Y coordinate of the cell
+     */
+    public void clear(int x, int y) {
+        words[y*wordsPerRow + (x >>> 6)] &= ~(1L << x);
+    }
+
+    /**
+     * Blocks or unblocks a cell
+     * @param x The X coordinate of the cell
+     * @param y The Y coordinate of the cell
+     * @param blocked If the cell should be blocked
+     */
+    public void set(int x, int y, boolean blocked) {
+        if(blocked) {
+            set(x, y);
+        } else {
+            clear(x, y);
+        }
+    }
+
+    /**
+     * Flips a cell between blocked and unblocked
+     * @param x The X coordinate of the cell
+     * @param y The Y coordinate of the cell
+     * @return If the cell is now blocked
+     */
+    public boolean toggle(int x, int y) {
+        int index = y*wordsPerRow + (x >>> 6);
+        words[index] ^= 1L << x;
+        return (words[index] & (1L << x)) != 0;
+    }
+
+    /**
+     * Unblocks every cell
+     */
+    public void clearAll() {
+        Arrays.fill(words, 0);
+    }
+
+    /**
+     * Checks if any cell in part of a row is blocked
+     * @param y The row
+     * @param fromX The first X coordinate to check
+     * @param toX The X coordinate to stop at, not included
+     * @return If any cell in the span is blocked
+     */
+    public boolean anyBlocked(int y, int fromX, int toX) {
+        if(fromX >= toX) return false;
+        int rowStart = y*wordsPerRow;
+        int firstWord = fromX >>> 6;
+        int lastWord = (toX - 1) >>> 6;
+        long firstMask = -1L << fromX;
+        long lastMask = -1L >>> (WORD_BITS - 1 - ((toX - 1) & 63));
+        if(firstWord == lastWord) {
+            return (words[rowStart + firstWord] & firstMask & lastMask) != 0;
+        }
+        if((words[rowStart + firstWord] & firstMask) != 0) return true;
+        for(int i = firstWord + 1; i < lastWord; i++) {
+            if(words[rowStart + i] != 0) return true;
+        }
+        return (words[rowStart + lastWord] & lastMask) != 0;
+    }
+
+    /**
+     * Counts the blocked cells in part of a row
+     * @param y The row
+     * @param fromX The first X coordinate to count
+     * @param toX The X coordinate to stop at, not included
+     * @return The amount of blocked cells in the span
+     */
+    public int countBlocked(int y, int fromX, int toX) {
+        if(fromX >= toX) return 0;
+        int rowStart = y*wordsPerRow;
+        int firstWord = fromX >>> 6;
+        int lastWord = (toX - 1) >>> 6;
+        long firstMask = -1L << fromX;
+        long lastMask = -1L >>> (WORD_BITS - 1 - ((toX - 1) & 63));
+        if(firstWord == lastWord) {
+            return Long.bitCount(words[rowStart + firstWord] & firstMask & lastMask);
+        }
+        int count = Long.bitCount(words[rowStart + firstWord] & firstMask);
+        for(int i = firstWord + 1; i < lastWord; i++) {
+            count += Long.bitCount(words[rowStart + i]);
+        }
+        return count + Long.bitCount(words[rowStart + lastWord] & lastMask);
+    }
+
+    /**
+     * Finds the first blocked cell in a row at or after an X coordinate
+     * @param y The row
+     * @param fromX The X coordinate to start from
+     * @return The X coordinate of the blocked cell, or the width if there isn't one
+     */
+    public int nextBlocked(int y, int fromX) {
+        if(fromX >= width) return width;
+        int rowStart = y*wordsPerRow;
+        int wordIndex = fromX >>> 6;
+        long word = words[rowStart + wordIndex] & (-1L << fromX);
+        while(true) {
+            if(word != 0) {
+                return Math.min(width, (wordIndex << 6) + Long.numberOfTrailingZeros(word));
+            }
+            if(++wordIndex == wordsPerRow) return width;
+            word = words[rowStart + wordIndex];
+        }
+    }
+
+    /**
+     * Finds the first cell in a row that isn't blocked at or after an X coordinate
+     * @param y The row
+     * @param fromX The X coordinate to start from
+     * @return The X coordinate of the cell, or the width if there isn't one
+     */
+    public int nextClear(int y, int fromX) {
+        if(fromX >= width) return width;
+        int rowStart = y*wordsPerRow;
+        int wordIndex = fromX >>> 6;
+        long word = ~words[rowStart + wordIndex] & (-1L << fromX);
+        while(true) {
+            if(word != 0) {
+                return Math.min(width, (wordIndex << 6) + Long.numberOfTrailingZeros(word));
+            }
+            if(++wordIndex == wordsPerRow) return width;
+            word = ~words[rowStart + wordIndex];
+        }
+    }
+
+    /**
+     * Finds the last blocked cell in a row at or before an X coordinate
+     * @param y The row
+     * @param fromX The X coordinate to start from
+     * @return The X coordinate of the blocked cell, or -1 if there isn't one
+     */
+    public int previousBlocked(int y, int fromX) {
+        if(fromX < 0) return -1;
+        int rowStart = y*wordsPerRow;
+        int wordIndex = fromX >>> 6;
+        long word = words[rowStart + wordIndex] & (-1L >>> (WORD_BITS - 1 - (fromX & 63)));
+        while(true) {
+            if(word != 0) {
+                return (wordIndex << 6) + WORD_BITS - 1 - Long.numberOfLeadingZeros(word);
+            }
+            if(--wordIndex < 0) return -1;
+            word = words[rowStart + wordIndex];
+        }
+    }
+
+    /**
+     * Gets one of the longs that make up a row, bit i is the cell at X coordinate wordIndex*64+i
+     * @param y The row
+     * @param wordIndex Which long of the row to get
+     * @return The packed bits
+     */
+    public long getWord(int y, int wordIndex) {
+        return words[y*wordsPerRow + wordIndex];
+    }
+
+    /**
+     * Replaces one of the longs that make up a row, bits past the end of the row are ignored
+     * @param y The row
+     * @param wordIndex Which long of the row to set
+     * @param word The packed bits, bit i is the cell at X coordinate wordIndex*64+i
+     */
+    public void setWord(int y, int wordIndex, long word) {
+        int bitsLeft = width - wordIndex*WORD_BITS;
+        if(bitsLeft < WORD_BITS) word &= (1L << bitsLeft) - 1;
+        words[y*wordsPerRow + wordIndex] = word;
+    }
+
+    /**
+     * Getter for the amount of longs in each row
+     * @return Longs per row
+     */
+    public int getWordsPerRow() {
+        return wordsPerRow;
+    }
+
+    /**
+     * Getter for the map width
+     * @return Map width
+     */
+    public int getWidth() {
+        return width;
+    }
+
+    /**
+     * Getter for the map height
+     * @return Map height
+     */
+    public int getHeight() {
+        return height;
+    }
+}
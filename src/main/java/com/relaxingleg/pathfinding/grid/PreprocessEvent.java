@@ -0,0 +1,41 @@
+package com.relaxingleg.pathfinding.grid;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * A Java Flight Recorder event for building something from a grid that searches use, such as landmark tables
+ * It is off unless a recording turns it on, and then costs about as much as reading the clock twice
+ * @author Matt
+ */
+@Name("com.relaxingleg.pathfinding.Preprocess")
+@Label("Preprocess")
+@Category("Pathfinding")
+@Description("Building something from a grid that searches use")
+@Enabled(false)
+@StackTrace(false)
+public class PreprocessEvent extends Event {
+
+    @Label("Structure")
+    private final String structure;
+    @Label("Grid Width")
+    private final int gridWidth;
+    @Label("Grid Height")
+    private final int gridHeight;
+
+    /**
+     * Creates the event, begin should be called before the build and commit after it
+     * @param structure What is being built, such as "landmarks"
+     * @param grid The grid it is built from
+     */
+    public PreprocessEvent(String structure, Grid grid) {
+        this.structure = structure;
+        this.gridWidth = grid.getWidth();
+        this.gridHeight = grid.getHeight();
+    }
+}
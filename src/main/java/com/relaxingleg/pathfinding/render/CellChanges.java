@@ -0,0 +1,87 @@
+package com.relaxingleg.pathfinding.render;
+
+/**
+ * Records which cells have changed since the last frame so the renderer only has to look at those
+ * Each cell is only recorded once however many times it changes, and when too many cells change it just
+ * asks for everything to be redrawn instead
+ * @author Matt
+ */
+public class CellChanges {
+
+    private final long[] recorded;
+    private final int[] changed;
+    private final int limit;
+    private int count;
+    private boolean everything = true;
+
+    /**
+     * Creates an empty set of changes, the first frame always redraws everything
+     * @param cellCount The amount of cells
+     */
+    public CellChanges(int cellCount) {
+        this.recorded = new long[(cellCount + 63) >>> 6];
+        this.limit = Math.max(cellCount / 4, 1);
+        this.changed = new int[limit];
+    }
+
+    /**
+     * Records a cell as changed
+     * @param cell The index of the cell
+     */
+    public void add(int cell) {
+        if(everything) return;
+        long bit = 1L << cell;
+        if((recorded[cell >>> 6] & bit) != 0) return;
+        if(count == limit) {
+            addAll();
+            return;
+        }
+        recorded[cell >>> 6] |= bit;
+        changed[count++] = cell;
+    }
+
+    /**
+     * Records every cell as changed, used when the whole board is reset
+     */
+    public void addAll() {
+        clear();
+        everything = true;
+    }
+
+    /**
+     * Checks if every cell has to be redrawn
+     * @return If every cell changed
+     */
+    public boolean isEverything() {
+        return everything;
+    }
+
+    /**
+     * Gets the amount of changed cells that were recorded one at a time
+     * @return The amount of cells, 0 if everything changed
+     */
+    public int size() {
+        return count;
+    }
+
+    /**
+     * Gets a cell that changed, they are in the order they first changed
+     * If everything changed there aren't any, so check isEverything first
+     * @param i The position in the changes, less than size
+     * @return The index of the cell
+     */
+    public int get(int i) {
+        return changed[i];
+    }
+
+    /**
+     * Forgets every change, should be called once they have been drawn
+     */
+    public void clear() {
+        for(int i = 0; i < count; i++) {
+            recorded[changed[i] >>> 6] = 0;
+        }
+        count = 0;
+        everything = false;
+    }
+}
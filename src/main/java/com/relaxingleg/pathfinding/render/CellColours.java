@@ -0,0 +1,89 @@
+package com.relaxingleg.pathfinding.render;
+
+import org.joml.Vector3f;
+
+/**
+ * The colour of every cell on the screen, kept as one palette index byte per cell at the same index as in the grid
+ * There is no object per cell, the renderers read the position and colour of a cell straight from its index
+ * @author Matt
+ */
+public class CellColours {
+
+    private final int width, height;
+    private final byte[] colours;
+    private final Palette palette = new Palette();
+
+    /**
+     * Creates the colours with every cell the same colour
+     * @param width The width of the grid
+     * @param height The height of the grid
+     * @param colour The colour every cell starts as
+     */
+    public CellColours(int width, int height, Vector3f colour) {
+        this.width = width;
+        this.height = height;
+        this.colours = new byte[width*height];
+        // Every byte starts at 0, so the first colour in the palette is the starting colour
+        palette.indexOf(colour);
+    }
+
+    /**
+     * Setter for the colour of a cell
+     * @param cell The index of the cell
+     * @param colour The new colour, at most 16 different colours can be used
+     */
+    public void setColour(int cell, Vector3f colour) {
+        colours[cell] = (byte)palette.indexOf(colour);
+    }
+
+    /**
+     * Getter for the colour of a cell
+     * @param cell The index of the cell
+     * @return The colour
+     */
+    public Vector3f getColour(int cell) {
+        return palette.get(colours[cell]);
+    }
+
+    /**
+     * Gets the X coordinate of a cell
+     * @param cell The index of the cell
+     * @return The X coordinate
+     */
+    public int getX(int cell) {
+        return cell % width;
+    }
+
+    /**
+     * Gets the Y coordinate of a cell
+     * @param cell The index of the cell
+     * @return The Y coordinate
+     */
+    public int getY(int cell) {
+        return cell / width;
+    }
+
+    /**
+     * Getter for the width
+     * @return The width of the grid
+     */
+    public int getWidth() {
+        return width;
+    }
+
+    /**
+     * Getter for the height
+     * @return The height of the grid
+     */
+    public int getHeight() {
+        return height;
+    }
+
+    /**
+     * Gets the amount of cells
+     * @return The amount of cells
+     */
+    public int size() {
+        return colours.length;
+    }
+}
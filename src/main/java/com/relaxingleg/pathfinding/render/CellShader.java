@@ -0,0 +1,31 @@
+package com.relaxingleg.pathfinding.render;
+
+import static org.lwjgl.opengl.GL20.glUniform2f;
+
+/**
+ * The shader that draws every cell as its own instance of a quad
+ * @author Matt
+ */
+public class CellShader extends Shader {
+
+    public static final int CELL_ATTRIBUTE = 1;
+    public static final int COLOUR_ATTRIBUTE = 2;
+    private final int cellSizeLocation;
+
+    /**
+     * Will create the shader program and get the uniform locations
+     */
+    protected CellShader() {
+        super("/vertexShader.glsl", "/fragmentShader.glsl", "position", "cell", "colour");
+        cellSizeLocation = getUniformLocation("cellSize");
+    }
+
+    /**
+     * Will load the size of a cell to the shaders uniform, the cells are placed from this and their coordinates
+     * @param width Half the width of a cell on the screen
+     * @param height Half the height of a cell on the screen
+     */
+    public void loadCellSize(float width, float height) {
+        glUniform2f(cellSizeLocation, width, height);
+    }
+}
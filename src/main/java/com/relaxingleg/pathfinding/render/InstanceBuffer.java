@@ -0,0 +1,171 @@
+package com.relaxingleg.pathfinding.render;
+
+import org.joml.Vector3f;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.FloatBuffer;
+
+/**
+ * Packs the per cell data for instanced rendering into one direct buffer that is reused every frame
+ * Each instance is the cell X and Y followed by the red, green and blue of its colour
+ * It keeps track of the range of instances that changed, so only that part has to be sent to the GPU
+ * It doesn't call OpenGL itself, so it can be used without a window
+ * @author Matt
+ */
+public class InstanceBuffer {
+
+    public static final int FLOATS_PER_INSTANCE = 5;
+    public static final int BYTES_PER_INSTANCE = FLOATS_PER_INSTANCE * Float.BYTES;
+    private final FloatBuffer buffer;
+    private final int capacity;
+    private int instanceCount;
+    private int dirtyStart, dirtyEnd;
+
+    /**
+     * Creates an empty buffer
+     * @param capacity The most instances it can hold
+     */
+    public InstanceBuffer(int capacity) {
+        this.capacity = capacity;
+        this.buffer = ByteBuffer.allocateDirect(capacity * BYTES_PER_INSTANCE).order(ByteOrder.nativeOrder()).asFloatBuffer();
+        clearDirty();
+    }
+
+    /**
+     * Writes the position and colour of an instance, it is only marked as changed if the values are different
+     * @param instance The index of the instance
+     * @param x The X coordinate of the cell
+     * @param y The Y coordinate of the cell
+     * @param colour The colour of the cell
+     */
+    public void set(int instance, int x, int y, Vector3f colour) {
+        checkIndex(instance);
+        int offset = instance * FLOATS_PER_INSTANCE;
+        if(instance < instanceCount && buffer.get(offset) == x && buffer.get(offset + 1) == y && hasColour(offset, colour)) return;
+        buffer.put(offset, x);
+        buffer.put(offset + 1, y);
+        putColour(offset, colour);
+        instanceCount = Math.max(instanceCount, instance + 1);
+        markDirty(instance);
+    }
+
+    /**
+     * Changes the colour of an instance that was already set
+     * @param instance The index of the instance
+     * @param colour The new colour
+     */
+    public void setColour(int instance, Vector3f colour) {
+        if(instance < 0 || instance >= instanceCount) {
+            throw new IndexOutOfBoundsException("Instance " + instance + " hasn't been set, there are " + instanceCount);
+        }
+        int offset = instance * FLOATS_PER_INSTANCE;
+        if(hasColour(offset, colour)) return;
+        putColour(offset, colour);
+        markDirty(instance);
+    }
+
+    /**
+     * Removes every instance
+     */
+    public void clear() {
+        instanceCount = 0;
+        clearDirty();
+    }
+
+    /**
+     * Gets the float at a position in an instance, used to check what was packed
+     * @param instance The index of the instance
+     * @param component 0 and 1 for the X and Y, 2 to 4 for the colour
+     * @return The value
+     */
+    public float get(int instance, int component) {
+        return buffer.get(instance * FLOATS_PER_INSTANCE + component);
+    }
+
+    /**
+     * Gets the packed data of every instance
+     * @return A view of the data from the first instance to the last one that was set
+     */
+    public FloatBuffer getBuffer() {
+        return buffer.duplicate().position(0).limit(instanceCount * FLOATS_PER_INSTANCE);
+    }
+
+    /**
+     * Gets the packed data of the instances that changed since the dirty range was last cleared
+     * @return A view of the changed range, empty if nothing changed
+     */
+    public FloatBuffer getDirtyBuffer() {
+        if(!isDirty()) return buffer.duplicate().position(0).limit(0);
+        return buffer.duplicate().position(dirtyStart * FLOATS_PER_INSTANCE).limit(dirtyEnd * FLOATS_PER_INSTANCE).slice();
+    }
+
+    /**
+     * Checks if any instances changed since the dirty range was last cleared
+     * @return If there are changes to upload
+     */
+    public boolean isDirty() {
+        return dirtyStart < dirtyEnd;
+    }
+
+    /**
+     * Getter for the first changed instance
+     * @return The index of the first instance that changed
+     */
+    public int getDirtyStart() {
+        return dirtyStart;
+    }
+
+    /**
+     * Getter for the end of the changed instances
+     * @return One more than the index of the last instance that changed
+     */
+    public int getDirtyEnd() {
+        return dirtyEnd;
+    }
+
+    /**
+     * Forgets the changes, should be called after they have been uploaded
+     */
+    public void clearDirty() {
+        dirtyStart = Integer.MAX_VALUE;
+        dirtyEnd = 0;
+    }
+
+    /**
+     * Getter for the amount of instances
+     * @return One more than the highest instance that was set
+     */
+    public int getInstanceCount() {
+        return instanceCount;
+    }
+
+    /**
+     * Getter for the capacity
+     * @return The most instances the buffer can hold
+     */
+    public int getCapacity() {
+        return capacity;
+    }
+
+    private void putColour(int offset, Vector3f colour) {
+        buffer.put(offset + 2, colour.x);
+        buffer.put(offset + 3, colour.y);
+        buffer.put(offset + 4, colour.z);
+    }
+
+    private boolean hasColour(int offset, Vector3f colour) {
+        return buffer.get(offset + 2) == colour.x && buffer.get(offset + 3) == colour.y && buffer.get(offset + 4) == colour.z;
+    }
+
+    private void markDirty(int instance) {
+        dirtyStart = Math.min(dirtyStart, instance);
+        dirtyEnd = Math.max(dirtyEnd, instance + 1);
+    }
+
+    private void checkIndex(int instance) {
+        if(instance < 0 || instance >= capacity) {
+            throw new IndexOutOfBoundsException("Instance " + instance + " is outside a buffer of " + capacity);
+        }
+    }
+}
@@ -0,0 +1,75 @@
+package com.relaxingleg.pathfinding.render;
+
+import org.joml.Vector3f;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.FloatBuffer;
+
+/**
+ * A small list of colours, so a cell can be stored as the index of its colour in one byte
+ * Colours are added the first time they are seen
+ * @author Matt
+ */
+public class Palette {
+
+    public static final int MAX_COLOURS = 16;
+    private final Vector3f[] colours = new Vector3f[MAX_COLOURS];
+    private final FloatBuffer buffer = ByteBuffer.allocateDirect(MAX_COLOURS * 3 * Float.BYTES).order(ByteOrder.nativeOrder()).asFloatBuffer();
+    private int size;
+    private boolean changed;
+
+    /**
+     * Gets the index of a colour, adding it if it is new
+     * @param colour The colour
+     * @return The index of the colour
+     */
+    public int indexOf(Vector3f colour) {
+        for(int i = 0; i < size; i++) {
+            if(colours[i] == colour || colours[i].equals(colour)) return i;
+        }
+        if(size == MAX_COLOURS) throw new IllegalStateException("Palette can only hold " + MAX_COLOURS + " colours");
+        colours[size] = colour;
+        buffer.put(size*3, colour.x);
+        buffer.put(size*3 + 1, colour.y);
+        buffer.put(size*3 + 2, colour.z);
+        changed = true;
+        return size++;
+    }
+
+    /**
+     * Gets a colour by its index
+     * @param index The index of the colour
+     * @return The colour
+     * @throws IndexOutOfBoundsException If no colour has that index
+     */
+    public Vector3f get(int index) {
+        if(index < 0 || index >= size) throw new IndexOutOfBoundsException("No colour at " + index + ", the palette has " + size);
+        return colours[index];
+    }
+
+    /**
+     * Checks if colours were added since the palette was last uploaded
+     * @return If the palette changed
+     */
+    public boolean isChanged() {
+        return changed;
+    }
+
+    /**
+     * Gets the colours packed as red, green and blue floats, and marks the palette as uploaded
+     * @return A view of every colour in the palette
+     */
+    public FloatBuffer upload() {
+        changed = false;
+        return buffer.duplicate().position(0).limit(MAX_COLOURS * 3);
+    }
+
+    /**
+     * Gets the amount of colours
+     * @return The amount of colours
+     */
+    public int size() {
+        return size;
+    }
+}
@@ -1,22 +1,18 @@
 package com.relaxingleg.pathfinding.render;
 
 import com.relaxingleg.pathfinding.io.Window;
-import com.relaxingleg.pathfinding.utils.Maths;
-import org.joml.Vector2f;
 import org.lwjgl.BufferUtils;
-import org.w3c.dom.UserDataHandler;
 
 import java.nio.FloatBuffer;
-import java.util.List;
 
 import static org.lwjgl.opengl.GL11.GL_FLOAT;
 import static org.lwjgl.opengl.GL11.GL_TRIANGLE_STRIP;
-import static org.lwjgl.opengl.GL11.glDisable;
-import static org.lwjgl.opengl.GL11.glDrawArrays;
 import static org.lwjgl.opengl.GL15.GL_ARRAY_BUFFER;
+import static org.lwjgl.opengl.GL15.GL_DYNAMIC_DRAW;
 import static org.lwjgl.opengl.GL15.GL_STATIC_DRAW;
 import static org.lwjgl.opengl.GL15.glBindBuffer;
 import static org.lwjgl.opengl.GL15.glBufferData;
+import static org.lwjgl.opengl.GL15.glBufferSubData;
 import static org.lwjgl.opengl.GL15.glDeleteBuffers;
 import static org.lwjgl.opengl.GL15.glGenBuffers;
 import static org.lwjgl.opengl.GL20.glDisableVertexAttribArray;
@@ -25,19 +21,24 @@ import static org.lwjgl.opengl.GL20.glVertexAttribPointer;
 import static org.lwjgl.opengl.GL30.glBindVertexArray;
 import static org.lwjgl.opengl.GL30.glDeleteVertexArrays;
 import static org.lwjgl.opengl.GL30.glGenVertexArrays;
+import static org.lwjgl.opengl.GL31.glDrawArraysInstanced;
+import static org.lwjgl.opengl.GL33.glVertexAttribDivisor;
 
 /**
  * This class is responsible for rendering the cells to the screen
+ * Every cell is an instance of the same quad, so the whole grid is drawn with one draw call
  * @author Matt
  */
 public class Renderer {
 
-    private final Shader shader = new Shader();
+    private final CellShader shader = new CellShader();
     private final int vaoID;
     private final int vboID;
+    private final int instanceVboID;
+    private InstanceBuffer instances = new InstanceBuffer(0);
 
     /**
-     * Will create the VAO and VBO for the renderer
+     * Will create the VAO and VBOs for the renderer
      */
     public Renderer() {
         vaoID = glGenVertexArrays();
@@ -53,44 +54,78 @@ public class Renderer {
         });
         positions.flip();
         glBufferData(GL_ARRAY_BUFFER, positions, GL_STATIC_DRAW);
-        glVertexAttribPointer(0, 2, GL_FLOAT, false, 0, 0);
+        glVertexAttribPointer(Shader.POSITION_ATTRIBUTE, 2, GL_FLOAT, false, 0, 0);
+
+        instanceVboID = glGenBuffers();
+        glBindBuffer(GL_ARRAY_BUFFER, instanceVboID);
+        glVertexAttribPointer(CellShader.CELL_ATTRIBUTE, 2, GL_FLOAT, false, InstanceBuffer.BYTES_PER_INSTANCE, 0);
+        glVertexAttribPointer(CellShader.COLOUR_ATTRIBUTE, 3, GL_FLOAT, false, InstanceBuffer.BYTES_PER_INSTANCE, 2 * Float.BYTES);
+        glVertexAttribDivisor(CellShader.CELL_ATTRIBUTE, 1);
+        glVertexAttribDivisor(CellShader.COLOUR_ATTRIBUTE, 1);
         glBindBuffer(GL_ARRAY_BUFFER, 0);
         glBindVertexArray(0);
     }
 
     /**
-     * Renders a set of cells
+     * Renders a set of cells, only the cells that changed are sent to the GPU
      * @param window The window
-     * @param cells All the cells to be rendered
+     * @param cells All the cells to be rendered, each at the index of its instance
+     * @param changes The cells that changed since the last frame, they are cleared once they are sent
      * @param size The size of the current grid
      * @param bordersActive If the cell borders are active
      */
-    public void render(Window window, List<Cell> cells, int size, boolean bordersActive) {
+    public void render(Window window, CellColours cells, CellChanges changes, int size, boolean bordersActive) {
         float aspectRatio = (float)window.getHeight()/window.getWidth();
         float height = 1f/size;
         float width = height*aspectRatio;
         float margin = (1-(width*size))/2;
+
+        glBindBuffer(GL_ARRAY_BUFFER, instanceVboID);
+        if(instances.getCapacity() != cells.size()) {
+            instances = new InstanceBuffer(cells.size());
+            glBufferData(GL_ARRAY_BUFFER, (long)cells.size() * InstanceBuffer.BYTES_PER_INSTANCE, GL_DYNAMIC_DRAW);
+            changes.addAll();
+        }
+        if(changes.isEverything()) {
+            for(int i = 0; i < cells.size(); i++) {
+                instances.set(i, cells.getX(i), cells.getY(i), cells.getColour(i));
+            }
+        } else {
+            for(int i = 0; i < changes.size(); i++) {
+                int index = changes.get(i);
+                instances.set(index, cells.getX(index), cells.getY(index), cells.getColour(index));
+            }
+        }
+        changes.clear();
+        if(instances.isDirty()) {
+            glBufferSubData(GL_ARRAY_BUFFER, (long)instances.getDirtyStart() * InstanceBuffer.BYTES_PER_INSTANCE, instances.getDirtyBuffer());
+            instances.clearDirty();
+        }
+        glBindBuffer(GL_ARRAY_BUFFER, 0);
+
         shader.start();
+        shader.loadCellSize(width, height);
+        shader.loadMargin(margin);
+        shader.loadBoarder(bordersActive);
         glBindVertexArray(vaoID);
-        glEnableVertexAttribArray(0);
-        for(Cell cell : cells) {
-            float x = -1+margin*2+(width*2*cell.getX())+width;
-            float y = (1-height*cell.getY()*2)-height;
-            shader.loadColour(cell.getColour());
-            shader.loadBoarder(bordersActive);
-            shader.loadTransformationMatrix(Maths.createTransformationMatrix(new Vector2f(x, y), new Vector2f(width, height)));
-            glDrawArrays(GL_TRIANGLE_STRIP, 0, 4);
-        }
-        glDisableVertexAttribArray(0);
+        glEnableVertexAttribArray(Shader.POSITION_ATTRIBUTE);
+        glEnableVertexAttribArray(CellShader.CELL_ATTRIBUTE);
+        glEnableVertexAttribArray(CellShader.COLOUR_ATTRIBUTE);
+        glDrawArraysInstanced(GL_TRIANGLE_STRIP, 0, 4, cells.size());
+        glDisableVertexAttribArray(Shader.POSITION_ATTRIBUTE);
+        glDisableVertexAttribArray(CellShader.CELL_ATTRIBUTE);
+        glDisableVertexAttribArray(CellShader.COLOUR_ATTRIBUTE);
         glBindVertexArray(0);
         shader.stop();
     }
 
     /**
-     * Will delete the VAO and VBO
+     * Will delete the VAO, VBOs and shader
      */
     public void cleanUp() {
+        shader.cleanUp();
         glDeleteVertexArrays(vaoID);
         glDeleteBuffers(vboID);
+        glDeleteBuffers(instanceVboID);
     }
 }
@@ -1,11 +1,6 @@
 package com.relaxingleg.pathfinding.render;
 
 import com.relaxingleg.pathfinding.utils.FileUtils;
-import org.joml.Matrix4f;
-import org.joml.Vector3f;
-import org.lwjgl.BufferUtils;
-
-import java.nio.FloatBuffer;
 
 import static org.lwjgl.opengl.GL11.GL_FALSE;
 import static org.lwjgl.opengl.GL20.GL_COMPILE_STATUS;
@@ -24,41 +19,52 @@ import static org.lwjgl.opengl.GL20.glGetShaderi;
 import static org.lwjgl.opengl.GL20.glGetUniformLocation;
 import static org.lwjgl.opengl.GL20.glLinkProgram;
 import static org.lwjgl.opengl.GL20.glShaderSource;
+import static org.lwjgl.opengl.GL20.glUniform1f;
 import static org.lwjgl.opengl.GL20.glUniform1i;
-import static org.lwjgl.opengl.GL20.glUniform3f;
-import static org.lwjgl.opengl.GL20.glUniformMatrix4fv;
 import static org.lwjgl.opengl.GL20.glUseProgram;
 import static org.lwjgl.opengl.GL20.glValidateProgram;
 
 /**
- * Controls the shader program for rendering
+ * Controls a shader program for rendering, the subclasses load the uniforms of their own program
  * @author Matt
  */
-public class Shader {
+public abstract class Shader {
 
-    private static FloatBuffer matrixBuffer = BufferUtils.createFloatBuffer(16);
-    private int programID;
-    private int vertexID;
-    private int fragmentID;
-    private int transformationMatrixLocation;
-    private int colourLocation;
-    private int borderLocation;
+    public static final int POSITION_ATTRIBUTE = 0;
+    private final int programID;
+    private final int vertexID;
+    private final int fragmentID;
+    private final int marginLocation;
+    private final int borderLocation;
 
     /**
-     * Will create the shader program, bind attribute location, and get uniform locations
+     * Will create the shader program, bind attribute locations, and get the uniform locations every program has
+     * @param vertexPath Where the vertex shader source is stored in the resources
+     * @param fragmentPath Where the fragment shader source is stored in the resources
+     * @param attributes The attribute names, each one is bound to its position in the array
      */
-    protected Shader() {
+    protected Shader(String vertexPath, String fragmentPath, String... attributes) {
         programID = glCreateProgram();
-        vertexID = createShader(GL_VERTEX_SHADER, "/vertexShader.glsl");
-        fragmentID = createShader(GL_FRAGMENT_SHADER, "/fragmentShader.glsl");
+        vertexID = createShader(GL_VERTEX_SHADER, vertexPath);
+        fragmentID = createShader(GL_FRAGMENT_SHADER, fragmentPath);
         glAttachShader(programID, vertexID);
         glAttachShader(programID, fragmentID);
-        glBindAttribLocation(programID, 0, "position");
+        for(int i = 0; i < attributes.length; i++) {
+            glBindAttribLocation(programID, i, attributes[i]);
+        }
         glValidateProgram(programID);
         glLinkProgram(programID);
-        transformationMatrixLocation = glGetUniformLocation(programID, "transformationMatrix");
-        colourLocation = glGetUniformLocation(programID, "passColour");
-        borderLocation = glGetUniformLocation(programID, "border");
+        marginLocation = getUniformLocation("margin");
+        borderLocation = getUniformLocation("border");
+    }
+
+    /**
+     * Gets where a uniform is in the program
+     * @param name The name of the uniform
+     * @return The location of the uniform
+     */
+    protected int getUniformLocation(String name) {
+        return glGetUniformLocation(programID, name);
     }
 
     /**
@@ -105,20 +111,11 @@ public class Shader {
     }
 
     /**
-     * Will load the given transformation matrix to the shaders uniform
-     * @param transformationMatrix The transformation matrix to load
-     */
-    public void loadTransformationMatrix(Matrix4f transformationMatrix) {
-        transformationMatrix.get(matrixBuffer);
-        glUniformMatrix4fv(transformationMatrixLocation, false, matrixBuffer);
-    }
-
-    /**
-     * Will load a given colour to the shaders uniform
-     * @param colour The colour to load
+     * Will load the gap on the left of the grid to the shaders uniform
+     * @param margin The gap on the left of the grid
      */
-    public void loadColour(Vector3f colour) {
-        glUniform3f(colourLocation, colour.x, colour.y, colour.z);
+    public void loadMargin(float margin) {
+        glUniform1f(marginLocation, margin);
     }
 
     /**
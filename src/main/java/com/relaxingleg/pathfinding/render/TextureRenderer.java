@@ -0,0 +1,165 @@
+package com.relaxingleg.pathfinding.render;
+
+import com.relaxingleg.pathfinding.io.Window;
+import org.lwjgl.BufferUtils;
+
+import java.nio.ByteBuffer;
+import java.nio.FloatBuffer;
+
+import static org.lwjgl.opengl.GL11.GL_FLOAT;
+import static org.lwjgl.opengl.GL11.GL_NEAREST;
+import static org.lwjgl.opengl.GL11.GL_TEXTURE_2D;
+import static org.lwjgl.opengl.GL11.GL_TEXTURE_MAG_FILTER;
+import static org.lwjgl.opengl.GL11.GL_TEXTURE_MIN_FILTER;
+import static org.lwjgl.opengl.GL11.GL_TRIANGLE_STRIP;
+import static org.lwjgl.opengl.GL11.GL_UNPACK_ALIGNMENT;
+import static org.lwjgl.opengl.GL11.GL_UNPACK_ROW_LENGTH;
+import static org.lwjgl.opengl.GL11.GL_UNSIGNED_BYTE;
+import static org.lwjgl.opengl.GL11.glBindTexture;
+import static org.lwjgl.opengl.GL11.glDeleteTextures;
+import static org.lwjgl.opengl.GL11.glDrawArrays;
+import static org.lwjgl.opengl.GL11.glGenTextures;
+import static org.lwjgl.opengl.GL11.glPixelStorei;
+import static org.lwjgl.opengl.GL11.glTexImage2D;
+import static org.lwjgl.opengl.GL11.glTexParameteri;
+import static org.lwjgl.opengl.GL11.glTexSubImage2D;
+import static org.lwjgl.opengl.GL13.GL_TEXTURE0;
+import static org.lwjgl.opengl.GL13.glActiveTexture;
+import static org.lwjgl.opengl.GL15.GL_ARRAY_BUFFER;
+import static org.lwjgl.opengl.GL15.GL_STATIC_DRAW;
+import static org.lwjgl.opengl.GL15.glBindBuffer;
+import static org.lwjgl.opengl.GL15.glBufferData;
+import static org.lwjgl.opengl.GL15.glDeleteBuffers;
+import static org.lwjgl.opengl.GL15.glGenBuffers;
+import static org.lwjgl.opengl.GL20.glDisableVertexAttribArray;
+import static org.lwjgl.opengl.GL20.glEnableVertexAttribArray;
+import static org.lwjgl.opengl.GL20.glVertexAttribPointer;
+import static org.lwjgl.opengl.GL30.GL_R8UI;
+import static org.lwjgl.opengl.GL30.GL_RED_INTEGER;
+import static org.lwjgl.opengl.GL30.glBindVertexArray;
+import static org.lwjgl.opengl.GL30.glDeleteVertexArrays;
+import static org.lwjgl.opengl.GL30.glGenVertexArrays;
+
+/**
+ * Renders the grid as one quad with the colour of every cell stored in a texture, one byte per cell
+ * Only the rows of the texture that changed are uploaded, so the cost of a frame doesn't depend on the amount of cells
+ * @author Matt
+ */
+public class TextureRenderer {
+
+    private final TextureShader shader = new TextureShader();
+    private final Palette palette = new Palette();
+    private final int vaoID;
+    private final int vboID;
+    private int textureID = -1;
+    private TextureUpdates updates;
+
+    /**
+     * Will create the VAO and VBO for the quad
+     */
+    public TextureRenderer() {
+        vaoID = glGenVertexArrays();
+        glBindVertexArray(vaoID);
+        vboID = glGenBuffers();
+        glBindBuffer(GL_ARRAY_BUFFER, vboID);
+        FloatBuffer positions = BufferUtils.createFloatBuffer(8);
+        positions.put(new float[]{
+                -1, 1,
+                -1, -1,
+                1, 1,
+                1, -1
+        });
+        positions.flip();
+        glBufferData(GL_ARRAY_BUFFER, positions, GL_STATIC_DRAW);
+        glVertexAttribPointer(Shader.POSITION_ATTRIBUTE, 2, GL_FLOAT, false, 0, 0);
+        glBindBuffer(GL_ARRAY_BUFFER, 0);
+        glBindVertexArray(0);
+    }
+
+    /**
+     * Renders a set of cells, only the cells that changed are written to the texture
+     * @param window The window
+     * @param cells All the cells to be rendered, at the same index as in the grid
+     * @param changes The cells that changed since the last frame, they are cleared once they are sent
+     * @param size The size of the current grid
+     * @param bordersActive If the cell borders are active
+     */
+    public void render(Window window, CellColours cells, CellChanges changes, int size, boolean bordersActive) {
+        float aspectRatio = (float)window.getHeight()/window.getWidth();
+        float margin = (1-aspectRatio)/2;
+
+        glActiveTexture(GL_TEXTURE0);
+        if(updates == null || updates.getWidth() != size || updates.getHeight() != size) {
+            createTexture(size);
+            changes.addAll();
+        } else {
+            glBindTexture(GL_TEXTURE_2D, textureID);
+        }
+        if(changes.isEverything()) {
+            for(int i = 0; i < cells.size(); i++) {
+                setTexel(cells, i);
+            }
+        } else {
+            for(int i = 0; i < changes.size(); i++) {
+                setTexel(cells, changes.get(i));
+            }
+        }
+        changes.clear();
+        upload();
+
+        shader.start();
+        if(palette.isChanged()) shader.loadPalette(palette.upload());
+        shader.loadGridSize(size);
+        shader.loadMargin(margin);
+        shader.loadBoarder(bordersActive);
+        shader.loadCellsTexture(0);
+        glBindVertexArray(vaoID);
+        glEnableVertexAttribArray(Shader.POSITION_ATTRIBUTE);
+        glDrawArrays(GL_TRIANGLE_STRIP, 0, 4);
+        glDisableVertexAttribArray(Shader.POSITION_ATTRIBUTE);
+        glBindVertexArray(0);
+        shader.stop();
+        glBindTexture(GL_TEXTURE_2D, 0);
+    }
+
+    /**
+     * Will delete the VAO, VBO, texture and shader
+     */
+    public void cleanUp() {
+        shader.cleanUp();
+        glDeleteVertexArrays(vaoID);
+        glDeleteBuffers(vboID);
+        if(textureID != -1) glDeleteTextures(textureID);
+    }
+
+    private void setTexel(CellColours cells, int cell) {
+        updates.set(cells.getX(cell), cells.getY(cell), (byte)palette.indexOf(cells.getColour(cell)));
+    }
+
+    private void createTexture(int size) {
+        if(textureID != -1) glDeleteTextures(textureID);
+        textureID = glGenTextures();
+        glBindTexture(GL_TEXTURE_2D, textureID);
+        glTexParameteri(GL_TEXTURE_2D, GL_TEXTURE_MIN_FILTER, GL_NEAREST);
+        glTexParameteri(GL_TEXTURE_2D, GL_TEXTURE_MAG_FILTER, GL_NEAREST);
+        glTexImage2D(GL_TEXTURE_2D, 0, GL_R8UI, size, size, 0, GL_RED_INTEGER, GL_UNSIGNED_BYTE, (ByteBuffer)null);
+        updates = new TextureUpdates(size, size);
+    }
+
+    private void upload() {
+        glPixelStorei(GL_UNPACK_ALIGNMENT, 1);
+        if(updates.isFull()) {
+            glTexSubImage2D(GL_TEXTURE_2D, 0, 0, 0, updates.getWidth(), updates.getHeight(), GL_RED_INTEGER, GL_UNSIGNED_BYTE, updates.getTexels(0, 0));
+        } else {
+            glPixelStorei(GL_UNPACK_ROW_LENGTH, updates.getWidth());
+            for(int i = 0; i < updates.getRowCount(); i++) {
+                int y = updates.getRow(i);
+                int x = updates.getRowStart(y);
+                glTexSubImage2D(GL_TEXTURE_2D, 0, x, y, updates.getRowEnd(y) - x, 1, GL_RED_INTEGER, GL_UNSIGNED_BYTE, updates.getTexels(x, y));
+            }
+            glPixelStorei(GL_UNPACK_ROW_LENGTH, 0);
+        }
+        glPixelStorei(GL_UNPACK_ALIGNMENT, 4);
+        updates.clear();
+    }
+}
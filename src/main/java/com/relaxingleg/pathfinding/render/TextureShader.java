@@ -0,0 +1,51 @@
+package com.relaxingleg.pathfinding.render;
+
+import java.nio.FloatBuffer;
+
+import static org.lwjgl.opengl.GL20.glUniform1i;
+import static org.lwjgl.opengl.GL20.glUniform3fv;
+
+/**
+ * The shader that draws the whole grid as one quad, reading the colour of each cell from a texture
+ * @author Matt
+ */
+public class TextureShader extends Shader {
+
+    private final int gridSizeLocation;
+    private final int paletteLocation;
+    private final int cellsLocation;
+
+    /**
+     * Will create the shader program and get the uniform locations
+     */
+    protected TextureShader() {
+        super("/gridVertexShader.glsl", "/gridFragmentShader.glsl", "position");
+        gridSizeLocation = getUniformLocation("gridSize");
+        paletteLocation = getUniformLocation("palette");
+        cellsLocation = getUniformLocation("cells");
+    }
+
+    /**
+     * Will load the amount of cells along each side of the grid to the shaders uniform
+     * @param size The size of the grid
+     */
+    public void loadGridSize(int size) {
+        glUniform1i(gridSizeLocation, size);
+    }
+
+    /**
+     * Will load the colours the texture values point to
+     * @param colours The red, green and blue of each colour
+     */
+    public void loadPalette(FloatBuffer colours) {
+        glUniform3fv(paletteLocation, colours);
+    }
+
+    /**
+     * Will tell the shader which texture unit the cell texture is bound to
+     * @param unit The texture unit
+     */
+    public void loadCellsTexture(int unit) {
+        glUniform1i(cellsLocation, unit);
+    }
+}
@@ -0,0 +1,162 @@
+package com.relaxingleg.pathfinding.render;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+/**
+ * Keeps a copy of a grid texture with one byte per texel and works out which parts of it need uploading
+ * Changes are grouped into one span per row, from the first changed texel in the row to the last,
+ * and if too many rows changed the whole texture is sent in one go instead
+ * It doesn't call OpenGL itself, so it can be used without a window
+ * @author Matt
+ */
+public class TextureUpdates {
+
+    private final int width, height;
+    private final ByteBuffer texels;
+    private final int[] rowStart;
+    private final int[] rowEnd;
+    private final int[] rows;
+    private final int maxRows;
+    private int rowCount;
+    private boolean full = true;
+
+    /**
+     * Creates the texel store, the first upload is always the whole texture
+     * @param width The width of the texture
+     * @param height The height of the texture
+     */
+    public TextureUpdates(int width, int height) {
+        this.width = width;
+        this.height = height;
+        this.texels = ByteBuffer.allocateDirect(width * height);
+        this.rowStart = new int[height];
+        this.rowEnd = new int[height];
+        this.rows = new int[height];
+        this.maxRows = Math.max(height / 2, 1);
+        Arrays.fill(rowStart, Integer.MAX_VALUE);
+    }
+
+    /**
+     * Changes a texel, it is only marked for uploading if the value is different
+     * @param x The X coordinate of the texel
+     * @param y The Y coordinate of the texel
+     * @param value The new value
+     */
+    public void set(int x, int y, byte value) {
+        int index = y * width + x;
+        if(texels.get(index) == value) return;
+        texels.put(index, value);
+        if(full) return;
+        if(rowStart[y] == Integer.MAX_VALUE) {
+            if(rowCount == maxRows) {
+                markAll();
+                return;
+            }
+            rows[rowCount++] = y;
+            rowStart[y] = x;
+            rowEnd[y] = x + 1;
+        } else {
+            rowStart[y] = Math.min(rowStart[y], x);
+            rowEnd[y] = Math.max(rowEnd[y], x + 1);
+        }
+    }
+
+    /**
+     * Marks the whole texture for uploading
+     */
+    public void markAll() {
+        clear();
+        full = true;
+    }
+
+    /**
+     * Checks if the whole texture should be uploaded instead of the rows
+     * @return If the whole texture changed
+     */
+    public boolean isFull() {
+        return full;
+    }
+
+    /**
+     * Gets the amount of rows with changes, the rows are in the order they first changed
+     * @return The amount of rows, 0 if the whole texture changed
+     */
+    public int getRowCount() {
+        return rowCount;
+    }
+
+    /**
+     * Gets the Y coordinate of a row with changes
+     * @param i The position of the row, less than the row count
+     * @return The Y coordinate
+     */
+    public int getRow(int i) {
+        return rows[i];
+    }
+
+    /**
+     * Gets the X coordinate of the first changed texel in a row
+     * @param y The Y coordinate of the row
+     * @return The X coordinate
+     */
+    public int getRowStart(int y) {
+        return rowStart[y];
+    }
+
+    /**
+     * Gets the end of the changed texels in a row
+     * @param y The Y coordinate of the row
+     * @return One more than the X coordinate of the last changed texel
+     */
+    public int getRowEnd(int y) {
+        return rowEnd[y];
+    }
+
+    /**
+     * Gets the value of a texel
+     * @param x The X coordinate of the texel
+     * @param y The Y coordinate of the texel
+     * @return The value
+     */
+    public byte get(int x, int y) {
+        return texels.get(y * width + x);
+    }
+
+    /**
+     * Gets the texels of part of a row, ready to upload
+     * @param x The X coordinate of the first texel
+     * @param y The Y coordinate of the row
+     * @return A view of the texels starting at that position, it runs to the end of the texture
+     */
+    public ByteBuffer getTexels(int x, int y) {
+        return texels.duplicate().position(y * width + x);
+    }
+
+    /**
+     * Forgets the changes, should be called after they have been uploaded
+     */
+    public void clear() {
+        for(int i = 0; i < rowCount; i++) {
+            rowStart[rows[i]] = Integer.MAX_VALUE;
+        }
+        rowCount = 0;
+        full = false;
+    }
+
+    /**
+     * Getter for the texture width
+     * @return Texture width
+     */
+    public int getWidth() {
+        return width;
+    }
+
+    /**
+     * Getter for the texture height
+     * @return Texture height
+     */
+    public int getHeight() {
+        return height;
+    }
+}
@@ -0,0 +1,135 @@
+package com.relaxingleg.pathfinding.search;
+
+import com.relaxingleg.pathfinding.grid.Grid;
+import com.relaxingleg.pathfinding.utils.IntDoubleBuffer;
+
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Runs a stepped search on its own thread and passes what it does back to another thread, such as the render thread
+ * The opened and closed cells are sent in batches through a lock free double buffer, so the search never waits for
+ * the other thread and the other thread never waits for the search
+ * The grid must not change while a search is running, cancel it first
+ * @author Matt
+ */
+public class BackgroundSearch implements SearchListener {
+
+    private static final int PUBLISH_INTERVAL = 256;
+    private final Grid grid;
+    private IntDoubleBuffer events = new IntDoubleBuffer(1);
+    private Thread thread;
+    private volatile boolean cancelled;
+    private volatile boolean finished;
+    private volatile Path path;
+
+    /**
+     * Creates a background search for a grid, no thread is started until a search is
+     * @param grid The grid that will be searched
+     */
+    public BackgroundSearch(Grid grid) {
+        this.grid = grid;
+    }
+
+    /**
+     * Starts searching on a new thread, cancelling the last search if it is still running
+     * The engine must not be used by anything else until the search is finished or cancelled
+     * @param engine The engine to search with, its listener is swapped out while the search runs
+     * @param startX The X coordinate of the start cell
+     * @param startY The Y coordinate of the start cell
+     * @param goalX The X coordinate of the goal cell
+     * @param goalY The Y coordinate of the goal cell
+     */
+    public void start(PathfindingEngine engine, int startX, int startY, int goalX, int goalY) {
+        cancel();
+        events = new IntDoubleBuffer(1024);
+        cancelled = false;
+        finished = false;
+        path = null;
+        thread = new Thread(() -> run(engine, startX, startY, goalX, goalY), "pathfinding-solver");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /**
+     * Stops the running search and waits for its thread to end, it does nothing if there isn't one
+     */
+    public void cancel() {
+        if(thread == null) return;
+        cancelled = true;
+        boolean interrupted = false;
+        while(thread.isAlive()) {
+            try {
+                thread.join();
+            } catch (InterruptedException e) {
+                interrupted = true;
+            }
+        }
+        thread = null;
+        if(interrupted) Thread.currentThread().interrupt();
+    }
+
+    /**
+     * Hands over the cells the search has opened and closed since the last poll
+     * @param listener Told about each cell on the calling thread
+     * @return If the search has finished and every cell has been handed over, the path can then be read
+     */
+    public boolean poll(SearchListener listener) {
+        // Read the flag first, so if it was set every event was published before it
+        boolean done = finished;
+        IntDoubleBuffer.Batch batch = events.acquire();
+        if(batch != null) {
+            for(int i = 0; i < batch.size(); i++) {
+                int event = batch.get(i);
+                int cell = event >>> 1;
+                if((event & 1) == 0) {
+                    listener.cellOpened(grid.getX(cell), grid.getY(cell));
+                } else {
+                    listener.cellClosed(grid.getX(cell), grid.getY(cell));
+                }
+            }
+            events.release(batch);
+            return false;
+        }
+        return done;
+    }
+
+    /**
+     * Gets the path once poll has said the search is finished
+     * @return The path, or null if the search hasn't finished
+     */
+    public Path getPath() {
+        return path;
+    }
+
+    @Override
+    public void cellOpened(int x, int y) {
+        events.add(grid.index(x, y) << 1);
+    }
+
+    @Override
+    public void cellClosed(int x, int y) {
+        events.add(grid.index(x, y) << 1 | 1);
+    }
+
+    private void run(PathfindingEngine engine, int startX, int startY, int goalX, int goalY) {
+        SearchListener previous = engine.getListener();
+        engine.setListener(this);
+        try {
+            engine.start(startX, startY, goalX, goalY);
+            int steps = 0;
+            while(!cancelled && !engine.step()) {
+                if(++steps % PUBLISH_INTERVAL == 0) events.publish();
+            }
+            // The last events have to wait for the reader to hand its batch back
+            while(!cancelled && events.hasPending() && !events.publish()) {
+                LockSupport.parkNanos(100_000);
+            }
+        } finally {
+            engine.setListener(previous);
+        }
+        if(!cancelled) {
+            path = engine.getPath();
+            finished = true;
+        }
+    }
+}
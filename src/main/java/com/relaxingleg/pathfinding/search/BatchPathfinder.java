@@ -0,0 +1,121 @@
+package com.relaxingleg.pathfinding.search;
+
+import com.relaxingleg.pathfinding.grid.Grid;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+
+/**
+ * Runs lots of path queries at the same time on a fork join pool
+ * Each task borrows an engine that isn't being used and hands it back when it is done, so the search memory is reused
+ * between queries and never shared, and there are never more engines than tasks that have run at the same time
+ * The engines are kept as long as the batch pathfinder is, each one holds search memory for every cell of the grid
+ * The grid is only read, it must not be changed while a batch is running
+ * @author Matt
+ */
+public class BatchPathfinder {
+
+    private static final int QUERIES_PER_TASK = 8;
+    private final Grid grid;
+    private final ForkJoinPool pool;
+    private final Function<Grid, PathfindingEngine> engineFactory;
+    private final ConcurrentLinkedQueue<PathfindingEngine> idleEngines = new ConcurrentLinkedQueue<>();
+
+    /**
+     * Creates a batch pathfinder that runs A* on the common pool
+     * @param grid The grid to search
+     */
+    public BatchPathfinder(Grid grid) {
+        this(grid, ForkJoinPool.commonPool(), PathfindingEngine::new);
+    }
+
+    /**
+     * Creates a batch pathfinder
+     * @param grid The grid to search
+     * @param pool The pool to run the queries on
+     * @param engineFactory Creates an engine whenever a task needs one and none are free, for example JumpPointEngine::new
+     */
+    public BatchPathfinder(Grid grid, ForkJoinPool pool, Function<Grid, PathfindingEngine> engineFactory) {
+        this.grid = grid;
+        this.pool = pool;
+        this.engineFactory = engineFactory;
+    }
+
+    /**
+     * Finds the path for every query and waits for them all to finish
+     * @param queries The queries to run
+     * @return The paths in the same order as the queries
+     */
+    public List<Path> solveAll(List<Query> queries) {
+        Path[] paths = new Path[queries.size()];
+        pool.invoke(new QueryTask(queries, 0, queries.size(), (index, path) -> paths[index] = path));
+        return Arrays.asList(paths);
+    }
+
+    /**
+     * Finds the path for every query and hands each one over as soon as it is found
+     * The consumer is called from the worker threads, so it has to be thread safe
+     * @param queries The queries to run
+     * @param consumer Gets each query with its path, in whatever order they finish
+     */
+    public void solveAll(List<Query> queries, BiConsumer<Query, Path> consumer) {
+        pool.invoke(new QueryTask(queries, 0, queries.size(), (index, path) -> consumer.accept(queries.get(index), path)));
+    }
+
+    /**
+     * Getter for the grid
+     * @return The grid being searched
+     */
+    public Grid getGrid() {
+        return grid;
+    }
+
+    /**
+     * Takes the path for the query at an index without boxing the index
+     */
+    private interface ResultSink {
+        void accept(int index, Path path);
+    }
+
+    /**
+     * Splits a range of queries in half until it is small enough to run on one thread
+     */
+    private class QueryTask extends RecursiveAction {
+
+        private static final long serialVersionUID = 1L;
+        private final List<Query> queries;
+        private final int from, to;
+        private final ResultSink results;
+
+        private QueryTask(List<Query> queries, int from, int to, ResultSink results) {
+            this.queries = queries;
+            this.from = from;
+            this.to = to;
+            this.results = results;
+        }
+
+        @Override
+        protected void compute() {
+            if(to - from <= QUERIES_PER_TASK) {
+                PathfindingEngine engine = idleEngines.poll();
+                if(engine == null) engine = engineFactory.apply(grid);
+                try {
+                    for(int i = from; i < to; i++) {
+                        Query query = queries.get(i);
+                        results.accept(i, engine.findPath(query.startX(), query.startY(), query.goalX(), query.goalY()));
+                    }
+                } finally {
+                    idleEngines.offer(engine);
+                }
+                return;
+            }
+            int middle = (from + to) >>> 1;
+            invokeAll(new QueryTask(queries, from, middle, results), new QueryTask(queries, middle, to, results));
+        }
+    }
+}
@@ -0,0 +1,91 @@
+package com.relaxingleg.pathfinding.search;
+
+import com.relaxingleg.pathfinding.grid.ChunkedGrid;
+import com.relaxingleg.pathfinding.grid.Grid;
+
+import java.util.function.Function;
+
+/**
+ * Finds paths in a chunked world by searching a window around the start and goal, so tile boundaries don't matter
+ * The window starts a margin bigger than the box around the start and goal, and is made bigger until the path
+ * found is cheaper than any path that could leave it, which means the path is the same as searching the whole world
+ * @author Matt
+ */
+public class ChunkedPathfinder {
+
+    private final ChunkedGrid world;
+    private final Function<Grid, PathfindingEngine> engineFactory;
+    private final int margin;
+    private final int maxMargin;
+    private int windowsSearched;
+
+    /**
+     * Creates a pathfinder that runs A* with a margin of 32 cells, growing up to 4096
+     * @param world The world to search
+     */
+    public ChunkedPathfinder(ChunkedGrid world) {
+        this(world, PathfindingEngine::new, 32, 4096);
+    }
+
+    /**
+     * Creates a pathfinder
+     * @param world The world to search
+     * @param engineFactory Creates the engine for each window, for example JumpPointEngine::new
+     * @param margin How many cells around the start and goal the first window has
+     * @param maxMargin The biggest margin to try before giving up, the window can't grow past this
+     */
+    public ChunkedPathfinder(ChunkedGrid world, Function<Grid, PathfindingEngine> engineFactory, int margin, int maxMargin) {
+        if(margin < 0 || maxMargin < margin) {
+            throw new IllegalArgumentException("Margins must be 0 <= margin <= maxMargin, got " + margin + " and " + maxMargin);
+        }
+        this.world = world;
+        this.engineFactory = engineFactory;
+        this.margin = margin;
+        this.maxMargin = maxMargin;
+    }
+
+    /**
+     * Finds a path between two cells of the world
+     * If the window reaches the biggest margin the best path in it is returned, even if a path outside could be cheaper
+     * @param startX The X coordinate of the start cell
+     * @param startY The Y coordinate of the start cell
+     * @param goalX The X coordinate of the goal cell
+     * @param goalY The Y coordinate of the goal cell
+     * @return The path offset to world coordinates, read with getX and getY since the cell indices are from the window,
+     * empty if the goal can't be reached within the biggest window
+     */
+    public Path findPath(int startX, int startY, int goalX, int goalY) {
+        int distanceX = Math.abs(startX - goalX);
+        int distanceY = Math.abs(startY - goalY);
+        int currentMargin = margin;
+        while(true) {
+            int minX = Math.min(startX, goalX) - currentMargin;
+            int minY = Math.min(startY, goalY) - currentMargin;
+            Grid window = world.materialise(minX, minY, distanceX + 2*currentMargin + 1, distanceY + 2*currentMargin + 1);
+            Path path = engineFactory.apply(window).findPath(startX - minX, startY - minY, goalX - minX, goalY - minY);
+            windowsSearched++;
+            // A path that leaves the window has to cross the margin twice along one of the axes
+            long leavingCost = (long)PathfindingEngine.STRAIGHT_COST*(Math.min(distanceX, distanceY) + 2L*(currentMargin + 1));
+            if((!path.isEmpty() && path.getCost() <= leavingCost) || currentMargin == maxMargin) {
+                return path.offset(minX, minY);
+            }
+            currentMargin = (int)Math.min(Math.max(currentMargin*2L, 1), maxMargin);
+        }
+    }
+
+    /**
+     * Getter for the amount of windows that have been searched, more than one per path means the window had to grow
+     * @return The amount of windows
+     */
+    public int getWindowsSearched() {
+        return windowsSearched;
+    }
+
+    /**
+     * Getter for the world
+     * @return The world being searched
+     */
+    public ChunkedGrid getWorld() {
+        return world;
+    }
+}
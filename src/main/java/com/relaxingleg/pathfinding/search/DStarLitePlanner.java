@@ -0,0 +1,296 @@
+package com.relaxingleg.pathfinding.search;
+
+import com.relaxingleg.pathfinding.grid.Grid;
+import com.relaxingleg.pathfinding.grid.GridListener;
+import com.relaxingleg.pathfinding.utils.IntHeap;
+
+import java.util.Arrays;
+
+/**
+ * Plans a path with D* Lite and repairs it when cells change instead of searching again from scratch
+ * The search runs from the goal back to the start, so the start can move along the path and the
+ * G and RHS values of the last search stay valid for everything the changes didn't touch
+ * Each changed cell is only repaired once however often it changes, and once more than an eighth of the cells have
+ * changed it plans again from scratch instead, so the changes it keeps stay small
+ * @author Matt
+ */
+public class DStarLitePlanner implements GridListener {
+
+    private static final int INFINITY = Integer.MAX_VALUE / 4;
+    private final Grid grid;
+    private final int[] g;
+    private final int[] rhs;
+    private final int[] key1;
+    private final int[] key2;
+    private final IntHeap open;
+    private final long[] changed;
+    private final int changeLimit;
+    private int[] changes = new int[16];
+    private int changeCount;
+    private boolean planned = false;
+    private boolean cleared = false;
+    private int start, goal, lastStart;
+    private int keyModifier;
+
+    /**
+     * Creates a planner and starts listening to the grid for changes
+     * @param grid The grid to plan on
+     */
+    public DStarLitePlanner(Grid grid) {
+        this.grid = grid;
+        int cellCount = grid.getCellCount();
+        this.g = new int[cellCount];
+        this.rhs = new int[cellCount];
+        this.key1 = new int[cellCount];
+        this.key2 = new int[cellCount];
+        this.open = new IntHeap(this::compareKeys, cellCount);
+        this.changed = new long[(cellCount + 63) >>> 6];
+        // Past this many changed cells it is cheaper to plan again from scratch than to repair each one
+        this.changeLimit = Math.max(cellCount / 8, 16);
+        grid.addListener(this);
+    }
+
+    /**
+     * Plans a new path from scratch, throwing away anything from before
+     * @param startX The X coordinate of the start cell
+     * @param startY The Y coordinate of the start cell
+     * @param goalX The X coordinate of the goal cell
+     * @param goalY The Y coordinate of the goal cell
+     * @return The path, empty if the goal can't be reached
+     */
+    public Path findPath(int startX, int startY, int goalX, int goalY) {
+        start = grid.index(startX, startY);
+        lastStart = start;
+        goal = grid.index(goalX, goalY);
+        initialise();
+        computeShortestPath();
+        return extractPath();
+    }
+
+    /**
+     * Moves the start, for example when the agent following the path has taken a step
+     * @param x The X coordinate of the new start cell
+     * @param y The Y coordinate of the new start cell
+     */
+    public void moveStart(int x, int y) {
+        if(!planned) throw new IllegalStateException("findPath has to be called before the start can move");
+        start = grid.index(x, y);
+        keyModifier += getHeuristic(lastStart, start);
+        lastStart = start;
+    }
+
+    /**
+     * Repairs the last path after cells have changed or the start has moved
+     * Only the cells affected by the changes are searched again
+     * @return The path, empty if the goal can't be reached any more
+     */
+    public Path replan() {
+        if(!planned) throw new IllegalStateException("findPath has to be called before replan");
+        if(cleared) {
+            lastStart = start;
+            initialise();
+        } else {
+            for(int i = 0; i < changeCount; i++) {
+                int node = changes[i];
+                updateVertex(node);
+                updateNeighbours(node);
+            }
+            clearChanges();
+        }
+        computeShortestPath();
+        return extractPath();
+    }
+
+    /**
+     * Stops listening to the grid
+     */
+    public void detach() {
+        grid.removeListener(this);
+    }
+
+    @Override
+    public void cellChanged(int x, int y, boolean blocked) {
+        if(!planned || cleared) return;
+        int cell = grid.index(x, y);
+        long bit = 1L << cell;
+        if((changed[cell >>> 6] & bit) != 0) return;
+        if(changeCount == changeLimit) {
+            clearChanges();
+            cleared = true;
+            return;
+        }
+        if(changeCount == changes.length) {
+            changes = Arrays.copyOf(changes, Math.min(changeCount*2, changeLimit));
+        }
+        changed[cell >>> 6] |= bit;
+        changes[changeCount++] = cell;
+    }
+
+    @Override
+    public void gridCleared() {
+        cleared = true;
+        clearChanges();
+    }
+
+    /**
+     * Forgets the changed cells, only the words of the cells that were recorded are cleared
+     */
+    private void clearChanges() {
+        for(int i = 0; i < changeCount; i++) {
+            changed[changes[i] >>> 6] = 0;
+        }
+        changeCount = 0;
+    }
+
+    private void initialise() {
+        Arrays.fill(g, INFINITY);
+        Arrays.fill(rhs, INFINITY);
+        open.clear();
+        clearChanges();
+        keyModifier = 0;
+        cleared = false;
+        planned = true;
+        rhs[goal] = 0;
+        key1[goal] = getHeuristic(start, goal);
+        key2[goal] = 0;
+        open.put(goal);
+    }
+
+    private void computeShortestPath() {
+        while(!open.isEmpty()) {
+            int node = open.peek();
+            int startKey1 = calculateKey1(start);
+            int startKey2 = calculateKey2(start);
+            boolean topBeforeStart = key1[node] < startKey1 || (key1[node] == startKey1 && key2[node] < startKey2);
+            if(!topBeforeStart && rhs[start] <= g[start]) break;
+
+            int newKey1 = calculateKey1(node);
+            int newKey2 = calculateKey2(node);
+            if(key1[node] < newKey1 || (key1[node] == newKey1 && key2[node] < newKey2)) {
+                key1[node] = newKey1;
+                key2[node] = newKey2;
+                open.update(node);
+            } else if(g[node] > rhs[node]) {
+                g[node] = rhs[node];
+                open.remove(node);
+                updateNeighbours(node);
+            } else {
+                g[node] = INFINITY;
+                updateVertex(node);
+                updateNeighbours(node);
+            }
+        }
+    }
+
+    private void updateNeighbours(int node) {
+        int nodeX = grid.getX(node);
+        int nodeY = grid.getY(node);
+        for(int y = -1; y < 2; y++) {
+            for(int x = -1; x < 2; x++) {
+                if(x == 0 && y == 0) continue;
+                if(!grid.contains(nodeX + x, nodeY + y)) continue;
+                updateVertex(grid.index(nodeX + x, nodeY + y));
+            }
+        }
+    }
+
+    private void updateVertex(int node) {
+        if(node != goal) {
+            rhs[node] = getBestNeighbourCost(node);
+        }
+        boolean inOpen = open.contains(node);
+        if(g[node] != rhs[node]) {
+            key1[node] = calculateKey1(node);
+            key2[node] = calculateKey2(node);
+            if(inOpen) {
+                open.update(node);
+            } else {
+                open.put(node);
+            }
+        } else if(inOpen) {
+            open.remove(node);
+        }
+    }
+
+    /**
+     * Gets the cheapest cost of moving to a neighbour and then on to the goal
+     */
+    private int getBestNeighbourCost(int node) {
+        int nodeX = grid.getX(node);
+        int nodeY = grid.getY(node);
+        if(!grid.isWalkable(nodeX, nodeY)) return INFINITY;
+        int best = INFINITY;
+        for(int y = -1; y < 2; y++) {
+            for(int x = -1; x < 2; x++) {
+                if(x == 0 && y == 0) continue;
+                if(!grid.isWalkable(nodeX + x, nodeY + y)) continue;
+                int neighbourG = g[grid.index(nodeX + x, nodeY + y)];
+                if(neighbourG >= INFINITY) continue;
+                int moveCost = (x != 0 && y != 0) ? PathfindingEngine.DIAGONAL_COST : PathfindingEngine.STRAIGHT_COST;
+                best = Math.min(best, neighbourG + moveCost);
+            }
+        }
+        return best;
+    }
+
+    private Path extractPath() {
+        int width = grid.getWidth();
+        if(!grid.isWalkable(grid.getX(start), grid.getY(start)) || !grid.isWalkable(grid.getX(goal), grid.getY(goal))
+                || rhs[start] >= INFINITY) {
+            return new Path(new int[0], width, -1);
+        }
+        int[] cells = new int[16];
+        int length = 0;
+        int cost = 0;
+        int node = start;
+        cells[length++] = node;
+        while(node != goal) {
+            int nodeX = grid.getX(node);
+            int nodeY = grid.getY(node);
+            int next = -1;
+            int nextCost = INFINITY;
+            int best = INFINITY;
+            for(int y = -1; y < 2; y++) {
+                for(int x = -1; x < 2; x++) {
+                    if(x == 0 && y == 0) continue;
+                    if(!grid.isWalkable(nodeX + x, nodeY + y)) continue;
+                    int neighbour = grid.index(nodeX + x, nodeY + y);
+                    if(g[neighbour] >= INFINITY) continue;
+                    int moveCost = (x != 0 && y != 0) ? PathfindingEngine.DIAGONAL_COST : PathfindingEngine.STRAIGHT_COST;
+                    if(moveCost + g[neighbour] < best) {
+                        best = moveCost + g[neighbour];
+                        next = neighbour;
+                        nextCost = moveCost;
+                    }
+                }
+            }
+            if(next == -1 || length == grid.getCellCount()) return new Path(new int[0], width, -1);
+            if(length == cells.length) {
+                cells = Arrays.copyOf(cells, length*2);
+            }
+            cells[length++] = next;
+            cost += nextCost;
+            node = next;
+        }
+        return new Path(Arrays.copyOf(cells, length), width, cost);
+    }
+
+    private int calculateKey1(int node) {
+        return Math.min(g[node], rhs[node]) + getHeuristic(start, node) + keyModifier;
+    }
+
+    private int calculateKey2(int node) {
+        return Math.min(g[node], rhs[node]);
+    }
+
+    private int getHeuristic(int node1, int node2) {
+        return PathfindingEngine.getDistance(grid.getX(node1), grid.getY(node1), grid.getX(node2), grid.getY(node2));
+    }
+
+    private int compareKeys(int node1, int node2) {
+        if(key1[node1] != key1[node2]) {
+            return key1[node1] < key1[node2] ? 1 : -1;
+        }
+        return Integer.compare(key2[node2], key2[node1]);
+    }
+}
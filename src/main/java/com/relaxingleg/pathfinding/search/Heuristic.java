@@ -0,0 +1,26 @@
+package com.relaxingleg.pathfinding.search;
+
+/**
+ * Estimates the cost of getting from a cell to the goal
+ * It must never be more than the real cost or the paths found might not be the shortest, and it should be consistent
+ * so the estimate never drops by more than the cost of a move
+ * @author Matt
+ */
+@FunctionalInterface
+public interface Heuristic {
+
+    /**
+     * The octile distance, which is exact on a grid with no obstacles
+     */
+    Heuristic OCTILE = PathfindingEngine::getDistance;
+
+    /**
+     * Estimates the cost between two cells
+     * @param x The X coordinate of the cell
+     * @param y The Y coordinate of the cell
+     * @param goalX The X coordinate of the goal
+     * @param goalY The Y coordinate of the goal
+     * @return The estimated cost
+     */
+    int estimate(int x, int y, int goalX, int goalY);
+}
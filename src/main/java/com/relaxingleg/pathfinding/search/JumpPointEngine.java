@@ -0,0 +1,182 @@
+package com.relaxingleg.pathfinding.search;
+
+import com.relaxingleg.pathfinding.grid.Grid;
+import com.relaxingleg.pathfinding.grid.ObstacleMap;
+
+/**
+ * Runs Jump Point Search on a grid where every straight move costs the same and every diagonal move costs the same
+ * It skips over cells that any optimal path could go around symmetrically, so far fewer cells are expanded than with A*
+ * The paths it finds cost the same as the A* ones
+ * @author Matt
+ */
+public class JumpPointEngine extends PathfindingEngine {
+
+    private final ObstacleMap rows;
+    private final ObstacleMap columns;
+
+    /**
+     * Creates an engine for a grid
+     * @param grid The grid to search
+     */
+    public JumpPointEngine(Grid grid) {
+        this(grid, new SearchContext(grid.getCellCount()));
+    }
+
+    /**
+     * Creates an engine for a grid that uses an existing context
+     * @param grid The grid to search
+     * @param context The context to keep the search state in, it must have room for every cell of the grid
+     */
+    public JumpPointEngine(Grid grid, SearchContext context) {
+        super(grid, context);
+        this.rows = grid.getObstacles();
+        this.columns = grid.getColumns();
+    }
+
+    /**
+     * Jumps in every direction that isn't pruned and opens the jump points that are found
+     * @param currentNode The index of the cell being expanded
+     */
+    @Override
+    protected void expand(int currentNode) {
+        int x = grid.getX(currentNode);
+        int y = grid.getY(currentNode);
+        int parent = context.parent[currentNode];
+        if(parent == -1) {
+            for(int dy = -1; dy < 2; dy++) {
+                for(int dx = -1; dx < 2; dx++) {
+                    if(dx != 0 || dy != 0) jumpFrom(currentNode, x, y, dx, dy);
+                }
+            }
+            return;
+        }
+
+        int dx = Integer.signum(x - grid.getX(parent));
+        int dy = Integer.signum(y - grid.getY(parent));
+        if(dx != 0 && dy != 0) {
+            jumpFrom(currentNode, x, y, dx, 0);
+            jumpFrom(currentNode, x, y, 0, dy);
+            jumpFrom(currentNode, x, y, dx, dy);
+            if(!grid.isWalkable(x - dx, y)) jumpFrom(currentNode, x, y, -dx, dy);
+            if(!grid.isWalkable(x, y - dy)) jumpFrom(currentNode, x, y, dx, -dy);
+        } else if(dx != 0) {
+            jumpFrom(currentNode, x, y, dx, 0);
+            if(!grid.isWalkable(x, y + 1)) jumpFrom(currentNode, x, y, dx, 1);
+            if(!grid.isWalkable(x, y - 1)) jumpFrom(currentNode, x, y, dx, -1);
+        } else {
+            jumpFrom(currentNode, x, y, 0, dy);
+            if(!grid.isWalkable(x + 1, y)) jumpFrom(currentNode, x, y, 1, dy);
+            if(!grid.isWalkable(x - 1, y)) jumpFrom(currentNode, x, y, -1, dy);
+        }
+    }
+
+    private void jumpFrom(int currentNode, int x, int y, int dx, int dy) {
+        int jumpPoint = jump(x, y, dx, dy);
+        if(jumpPoint == -1) return;
+        int jumpX = grid.getX(jumpPoint);
+        int jumpY = grid.getY(jumpPoint);
+        visit(currentNode, jumpX, jumpY, context.gCost[currentNode] + getDistance(x, y, jumpX, jumpY));
+    }
+
+    /**
+     * Moves from a cell in a direction until it finds a jump point
+     * @return The index of the jump point, -1 if there isn't one
+     */
+    private int jump(int x, int y, int dx, int dy) {
+        if(dx == 0) {
+            int jumpY = jumpLine(columns, x, y, dy, x == goalX ? goalY : -1);
+            return jumpY == -1 ? -1 : grid.index(x, jumpY);
+        }
+        if(dy == 0) {
+            int jumpX = jumpLine(rows, y, x, dx, y == goalY ? goalX : -1);
+            return jumpX == -1 ? -1 : grid.index(jumpX, y);
+        }
+        while(true) {
+            x += dx;
+            y += dy;
+            if(!grid.isWalkable(x, y)) return -1;
+            if(x == goalX && y == goalY) return grid.index(x, y);
+            if(!grid.isWalkable(x - dx, y) && grid.isWalkable(x - dx, y + dy)) return grid.index(x, y);
+            if(!grid.isWalkable(x, y - dy) && grid.isWalkable(x + dx, y - dy)) return grid.index(x, y);
+            if(jumpLine(rows, y, x, dx, y == goalY ? goalX : -1) != -1) return grid.index(x, y);
+            if(jumpLine(columns, x, y, dy, x == goalX ? goalY : -1) != -1) return grid.index(x, y);
+        }
+    }
+
+    /**
+     * Jumps along one row of a bitmap, a whole long of cells at a time
+     * A cell is a jump point if it is the goal, or if the cell beside it is blocked but the next one along isn't
+     * @param map The bitmap, the transposed one is used for vertical jumps
+     * @param row The row of the bitmap to jump along
+     * @param position Where the jump starts from
+     * @param direction 1 to jump forwards, -1 to jump backwards
+     * @param goalPosition The position of the goal if it is in this row, otherwise -1
+     * @return The position of the jump point, -1 if a wall or the edge is hit first
+     */
+    private int jumpLine(ObstacleMap map, int row, int position, int direction, int goalPosition) {
+        int length = map.getWidth();
+        if(direction > 0) {
+            int from = position + 1;
+            if(from >= length) return -1;
+            int limit = map.nextBlocked(row, from);
+            if(limit == from) return -1;
+            int jumpPoint = (goalPosition > position && goalPosition < limit) ? goalPosition : -1;
+            int forced = firstForcedForwards(map, row, from, Math.min(limit, length - 1) - 1);
+            if(forced != -1 && (jumpPoint == -1 || forced < jumpPoint)) jumpPoint = forced;
+            return jumpPoint;
+        }
+        int from = position - 1;
+        if(from < 0) return -1;
+        int limit = map.previousBlocked(row, from);
+        if(limit == from) return -1;
+        int jumpPoint = (goalPosition >= 0 && goalPosition < position && goalPosition > limit) ? goalPosition : -1;
+        int forced = lastForcedBackwards(map, row, Math.max(limit + 1, 1), from);
+        return Math.max(forced, jumpPoint);
+    }
+
+    private int firstForcedForwards(ObstacleMap map, int row, int from, int to) {
+        if(from > to) return -1;
+        int firstWord = from >>> 6;
+        int lastWord = to >>> 6;
+        for(int i = firstWord; i <= lastWord; i++) {
+            long forced = forcedForwards(map, row - 1, i) | forcedForwards(map, row + 1, i);
+            if(i == firstWord) forced &= -1L << from;
+            if(i == lastWord) forced &= -1L >>> (63 - (to & 63));
+            if(forced != 0) return (i << 6) + Long.numberOfTrailingZeros(forced);
+        }
+        return -1;
+    }
+
+    private int lastForcedBackwards(ObstacleMap map, int row, int from, int to) {
+        if(from > to) return -1;
+        int firstWord = from >>> 6;
+        int lastWord = to >>> 6;
+        for(int i = lastWord; i >= firstWord; i--) {
+            long forced = forcedBackwards(map, row - 1, i) | forcedBackwards(map, row + 1, i);
+            if(i == firstWord) forced &= -1L << from;
+            if(i == lastWord) forced &= -1L >>> (63 - (to & 63));
+            if(forced != 0) return (i << 6) + 63 - Long.numberOfLeadingZeros(forced);
+        }
+        return -1;
+    }
+
+    /**
+     * Gets the bits of a neighbouring row where a cell is blocked and the cell after it isn't
+     */
+    private long forcedForwards(ObstacleMap map, int row, int wordIndex) {
+        if(row < 0 || row >= map.getHeight()) return 0;
+        long word = map.getWord(row, wordIndex);
+        long nextWord = wordIndex + 1 < map.getWordsPerRow() ? map.getWord(row, wordIndex + 1) : 0;
+        return word & ~((word >>> 1) | (nextWord << 63));
+    }
+
+    /**
+     * Gets the bits of a neighbouring row where a cell is blocked and the cell before it isn't
+     */
+    private long forcedBackwards(ObstacleMap map, int row, int wordIndex) {
+        if(row < 0 || row >= map.getHeight()) return 0;
+        long word = map.getWord(row, wordIndex);
+        long previousWord = wordIndex > 0 ? map.getWord(row, wordIndex - 1) : 0;
+        return word & ~((word << 1) | (previousWord >>> 63));
+    }
+}
@@ -0,0 +1,388 @@
+package com.relaxingleg.pathfinding.search;
+
+import com.relaxingleg.pathfinding.grid.Grid;
+import com.relaxingleg.pathfinding.grid.ObstacleMap;
+import com.relaxingleg.pathfinding.grid.PreprocessEvent;
+import com.relaxingleg.pathfinding.utils.BucketQueue;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.zip.CRC32;
+
+/**
+ * The ALT heuristic, which uses the real distances from a few landmark cells and the triangle inequality
+ * If a landmark is 100 from the goal and 30 from a cell, the cell can't be less than 70 from the goal, which is much
+ * closer to the real cost than the octile distance on maps with walls, so far fewer cells are expanded
+ * The estimate is the biggest of these bounds and the octile distance, so it is never worse than the octile distance
+ * The distances are kept in one int array with the landmarks of each cell next to each other
+ * The tables are only right for the grid as it was when they were built, once it changes the octile distance is used
+ * until they are built again. They are only read, so one can be shared by engines on different threads
+ * @author Matt
+ */
+public class LandmarkHeuristic implements Heuristic {
+
+    private static final int INFINITY = Integer.MAX_VALUE;
+    private static final int MAGIC = 'P' << 24 | 'F' << 16 | 'L' << 8 | 'M';
+    private static final int VERSION = 1;
+    private static final int HEADER_INTS = 6;
+    private static final int BUFFER_SIZE = 1 << 16;
+    private final Grid grid;
+    private final int width;
+    private final int[] landmarks;
+    private final int[] distances;
+    private final long version;
+
+    private LandmarkHeuristic(Grid grid, int[] landmarks, int[] distances) {
+        this.grid = grid;
+        this.width = grid.getWidth();
+        this.landmarks = landmarks;
+        this.distances = distances;
+        this.version = grid.getVersion();
+    }
+
+    /**
+     * Chooses landmarks and builds their tables on the common pool
+     * @param grid The grid, it must not change while the tables are built
+     * @param count How many landmarks to use, more give better estimates but cost more memory and time per estimate
+     * @param selection How to choose the landmarks
+     * @return The heuristic
+     */
+    public static LandmarkHeuristic build(Grid grid, int count, LandmarkSelection selection) {
+        return build(grid, count, selection, ForkJoinPool.commonPool(), 0);
+    }
+
+    /**
+     * Chooses landmarks and builds their tables
+     * @param grid The grid, it must not change while the tables are built
+     * @param count How many landmarks to use, fewer are used if the grid doesn't have enough walkable cells
+     * @param selection How to choose the landmarks
+     * @param pool The pool to build the tables on
+     * @param seed The seed for the random cells the selection starts from, so the same landmarks can be chosen again
+     * @return The heuristic
+     */
+    public static LandmarkHeuristic build(Grid grid, int count, LandmarkSelection selection, ForkJoinPool pool, long seed) {
+        if(count <= 0) throw new IllegalArgumentException("Need at least one landmark, got " + count);
+        if((long)grid.getCellCount()*count > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException(count + " landmarks on " + grid.getCellCount() + " cells won't fit in one table");
+        }
+        PreprocessEvent event = new PreprocessEvent("landmarks", grid);
+        event.begin();
+        Random random = new Random(seed);
+        int[] landmarks;
+        int[][] tables;
+        if(selection == LandmarkSelection.FARTHEST) {
+            landmarks = selectFarthest(grid, count, random);
+            tables = new int[landmarks.length][];
+            List<ForkJoinTask<int[]>> tasks = new ArrayList<>();
+            for(int landmark : landmarks) {
+                tasks.add(pool.submit(() -> distancesFrom(grid, landmark)));
+            }
+            for(int i = 0; i < landmarks.length; i++) {
+                tables[i] = tasks.get(i).join();
+            }
+        } else {
+            List<int[]> avoidTables = new ArrayList<>();
+            landmarks = selectAvoid(grid, count, random, avoidTables);
+            tables = avoidTables.toArray(new int[0][]);
+        }
+
+        int[] distances = new int[grid.getCellCount()*landmarks.length];
+        for(int i = 0; i < landmarks.length; i++) {
+            int[] table = tables[i];
+            for(int cell = 0; cell < table.length; cell++) {
+                distances[cell*landmarks.length + i] = table[cell];
+            }
+        }
+        event.commit();
+        return new LandmarkHeuristic(grid, landmarks, distances);
+    }
+
+    @Override
+    public int estimate(int x, int y, int goalX, int goalY) {
+        int best = PathfindingEngine.getDistance(x, y, goalX, goalY);
+        if(grid.getVersion() != version) return best;
+        int count = landmarks.length;
+        int cellStart = (y*width + x)*count;
+        int goalStart = (goalY*width + goalX)*count;
+        for(int i = 0; i < count; i++) {
+            int fromCell = distances[cellStart + i];
+            int fromGoal = distances[goalStart + i];
+            if(fromCell == INFINITY || fromGoal == INFINITY) continue;
+            best = Math.max(best, Math.abs(fromCell - fromGoal));
+        }
+        return best;
+    }
+
+    /**
+     * Checks if the grid is still the same as when the tables were built
+     * @return If the landmarks are being used, otherwise the estimate is just the octile distance
+     */
+    public boolean isCurrent() {
+        return grid.getVersion() == version;
+    }
+
+    /**
+     * Gets the landmarks that were chosen
+     * @return A copy of the grid indices of the landmarks
+     */
+    public int[] getLandmarks() {
+        return Arrays.copyOf(landmarks, landmarks.length);
+    }
+
+    /**
+     * Writes the landmarks and their tables to a channel, along with a checksum of the grid they were built for
+     * @param channel Where to write to, it isn't closed
+     * @throws IOException If the channel can't be written to
+     */
+    public void write(WritableByteChannel channel) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE);
+        CRC32 checksum = new CRC32();
+        int[] header = {MAGIC, VERSION, grid.getWidth(), grid.getHeight(), landmarks.length, getObstacleChecksum(grid)};
+        writeInts(channel, buffer, checksum, header);
+        writeInts(channel, buffer, checksum, landmarks);
+        writeInts(channel, buffer, checksum, distances);
+        writeInts(channel, buffer, null, new int[]{(int)checksum.getValue()});
+    }
+
+    /**
+     * Reads landmarks written by write, only exactly as much as was written is read from the channel
+     * @param grid The grid the landmarks were built for, it must have the same obstacles
+     * @param channel Where to read from, it isn't closed
+     * @return The heuristic
+     * @throws IOException If the channel can't be read, isn't valid, or the landmarks were built for a different grid
+     */
+    public static LandmarkHeuristic read(Grid grid, ReadableByteChannel channel) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE);
+        CRC32 checksum = new CRC32();
+        int[] header = new int[HEADER_INTS];
+        readInts(channel, buffer, checksum, header);
+        if(header[0] != MAGIC) throw new IOException("Not a landmark file");
+        if(header[1] != VERSION) throw new IOException("Unsupported landmark file version " + header[1]);
+        if(header[2] != grid.getWidth() || header[3] != grid.getHeight()) {
+            throw new IOException("Landmarks are for a " + header[2] + "x" + header[3] + " grid, not " + grid.getWidth() + "x" + grid.getHeight());
+        }
+        if(header[5] != getObstacleChecksum(grid)) throw new IOException("Landmarks were built for a grid with different obstacles");
+        int count = header[4];
+        if(count < 0 || (long)grid.getCellCount()*count > Integer.MAX_VALUE) throw new IOException("Bad landmark count " + count);
+        int[] landmarks = new int[count];
+        int[] distances = new int[grid.getCellCount()*count];
+        readInts(channel, buffer, checksum, landmarks);
+        readInts(channel, buffer, checksum, distances);
+        int[] trailer = new int[1];
+        readInts(channel, buffer, null, trailer);
+        if(trailer[0] != (int)checksum.getValue()) throw new IOException("Landmark file is corrupt");
+        return new LandmarkHeuristic(grid, landmarks, distances);
+    }
+
+    private static int[] selectFarthest(Grid grid, int count, Random random) {
+        int start = randomWalkable(grid, random);
+        if(start == -1) return new int[0];
+        int[] nearest = new int[grid.getCellCount()];
+        Arrays.fill(nearest, INFINITY);
+        search(grid, start, nearest, null, null);
+        int next = farthest(nearest);
+        // Adding a landmark only lowers the distance to the nearest landmark, so each search stops where it can't
+        Arrays.fill(nearest, INFINITY);
+        int[] landmarks = new int[count];
+        int found = 0;
+        while(found < count && nearest[next] != 0) {
+            landmarks[found++] = next;
+            search(grid, next, nearest, null, null);
+            next = farthest(nearest);
+        }
+        return Arrays.copyOf(landmarks, found);
+    }
+
+    /**
+     * The avoid method from Goldberg and Werneck, each landmark goes at the end of the branch of a shortest path tree
+     * from a random cell where the landmarks so far underestimate the most
+     */
+    private static int[] selectAvoid(Grid grid, int count, Random random, List<int[]> tables) {
+        int start = randomWalkable(grid, random);
+        if(start == -1) return new int[0];
+        int[] landmarks = new int[count];
+        landmarks[0] = farthest(distancesFrom(grid, start));
+        tables.add(distancesFrom(grid, landmarks[0]));
+        int found = 1;
+
+        int cellCount = grid.getCellCount();
+        int[] distance = new int[cellCount];
+        int[] parent = new int[cellCount];
+        int[] order = new int[cellCount];
+        int[] firstChild = new int[cellCount];
+        int[] nextSibling = new int[cellCount];
+        long[] size = new long[cellCount];
+        for(int attempt = 0; found < count && attempt < count*4; attempt++) {
+            int root = randomWalkable(grid, random);
+            Arrays.fill(distance, INFINITY);
+            int settled = search(grid, root, distance, parent, order);
+
+            for(int i = 0; i < settled; i++) {
+                size[order[i]] = 0;
+                firstChild[order[i]] = -1;
+            }
+            for(int i = 0; i < found; i++) {
+                if(distance[landmarks[i]] != INFINITY) size[landmarks[i]] = -1;
+            }
+            // Children are settled after their parents, so going backwards adds up every subtree before its parent
+            for(int i = settled - 1; i >= 0; i--) {
+                int node = order[i];
+                if(size[node] >= 0) size[node] += distance[node] - lowerBound(grid, tables, root, node);
+                int nodeParent = parent[node];
+                if(nodeParent == -1) continue;
+                nextSibling[node] = firstChild[nodeParent];
+                firstChild[nodeParent] = node;
+                if(size[node] < 0) {
+                    size[nodeParent] = -1;
+                } else if(size[nodeParent] >= 0) {
+                    size[nodeParent] += size[node];
+                }
+            }
+            // The root always has a landmark below it, so the walk down starts at its children
+            int node = root;
+            while(true) {
+                int best = -1;
+                for(int child = firstChild[node]; child != -1; child = nextSibling[child]) {
+                    if(size[child] > 0 && (best == -1 || size[child] > size[best])) best = child;
+                }
+                if(best == -1) break;
+                node = best;
+            }
+            if(node == root) continue;
+            landmarks[found++] = node;
+            tables.add(distancesFrom(grid, node));
+        }
+        return Arrays.copyOf(landmarks, found);
+    }
+
+    private static int lowerBound(Grid grid, List<int[]> tables, int from, int to) {
+        int best = PathfindingEngine.getDistance(grid.getX(from), grid.getY(from), grid.getX(to), grid.getY(to));
+        for(int[] table : tables) {
+            if(table[from] == INFINITY || table[to] == INFINITY) continue;
+            best = Math.max(best, Math.abs(table[from] - table[to]));
+        }
+        return best;
+    }
+
+    private static int[] distancesFrom(Grid grid, int source) {
+        int[] distance = new int[grid.getCellCount()];
+        Arrays.fill(distance, INFINITY);
+        search(grid, source, distance, null, null);
+        return distance;
+    }
+
+    /**
+     * Runs Dijkstra from a cell, only cells it can make closer are changed, so it can also add a source to a search
+     * that was already done
+     * @param distance The distance to each cell, INFINITY for cells that haven't been reached
+     * @param parent Filled with the parent of each reached cell, or null
+     * @param order Filled with the reached cells in the order they were settled, or null
+     * @return The amount of cells settled
+     */
+    private static int search(Grid grid, int source, int[] distance, int[] parent, int[] order) {
+        BucketQueue open = new BucketQueue(node -> distance[node], distance.length);
+        distance[source] = 0;
+        if(parent != null) parent[source] = -1;
+        open.put(source);
+        int settled = 0;
+        while(!open.isEmpty()) {
+            int node = open.pop();
+            if(order != null) order[settled] = node;
+            settled++;
+            int x = grid.getX(node);
+            int y = grid.getY(node);
+            for(int dy = -1; dy < 2; dy++) {
+                for(int dx = -1; dx < 2; dx++) {
+                    if(dx == 0 && dy == 0) continue;
+                    if(!grid.isWalkable(x + dx, y + dy)) continue;
+                    int neighbour = grid.index(x + dx, y + dy);
+                    int newDistance = distance[node] + (dx != 0 && dy != 0 ? PathfindingEngine.DIAGONAL_COST : PathfindingEngine.STRAIGHT_COST);
+                    if(newDistance >= distance[neighbour]) continue;
+                    distance[neighbour] = newDistance;
+                    if(parent != null) parent[neighbour] = node;
+                    if(open.contains(neighbour)) {
+                        open.decreaseKey(neighbour);
+                    } else {
+                        open.put(neighbour);
+                    }
+                }
+            }
+        }
+        return settled;
+    }
+
+    private static int farthest(int[] distance) {
+        int best = -1;
+        for(int cell = 0; cell < distance.length; cell++) {
+            if(distance[cell] != INFINITY && (best == -1 || distance[cell] > distance[best])) best = cell;
+        }
+        return best;
+    }
+
+    private static int randomWalkable(Grid grid, Random random) {
+        int cellCount = grid.getCellCount();
+        int offset = random.nextInt(cellCount);
+        for(int i = 0; i < cellCount; i++) {
+            int cell = (offset + i) % cellCount;
+            if(!grid.isBlocked(grid.getX(cell), grid.getY(cell))) return cell;
+        }
+        return -1;
+    }
+
+    private static int getObstacleChecksum(Grid grid) {
+        ObstacleMap obstacles = grid.getObstacles();
+        ByteBuffer row = ByteBuffer.allocate(obstacles.getWordsPerRow()*Long.BYTES);
+        CRC32 checksum = new CRC32();
+        for(int y = 0; y < grid.getHeight(); y++) {
+            row.clear();
+            for(int i = 0; i < obstacles.getWordsPerRow(); i++) {
+                row.putLong(obstacles.getWord(y, i));
+            }
+            checksum.update(row.array(), 0, row.position());
+        }
+        return (int)checksum.getValue();
+    }
+
+    private static void writeInts(WritableByteChannel channel, ByteBuffer buffer, CRC32 checksum, int[] values) throws IOException {
+        int position = 0;
+        while(position < values.length) {
+            buffer.clear();
+            while(position < values.length && buffer.remaining() >= Integer.BYTES) {
+                buffer.putInt(values[position++]);
+            }
+            if(checksum != null) checksum.update(buffer.array(), 0, buffer.position());
+            buffer.flip();
+            while(buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+        }
+    }
+
+    /**
+     * Fills an array from the channel, never reading past the last value
+     */
+    private static void readInts(ReadableByteChannel channel, ByteBuffer buffer, CRC32 checksum, int[] values) throws IOException {
+        int position = 0;
+        while(position < values.length) {
+            buffer.clear();
+            buffer.limit((int)Math.min(buffer.capacity(), (long)(values.length - position)*Integer.BYTES));
+            while(buffer.hasRemaining()) {
+                if(channel.read(buffer) < 0) throw new EOFException("Landmark file ends early");
+            }
+            if(checksum != null) checksum.update(buffer.array(), 0, buffer.limit());
+            buffer.flip();
+            while(buffer.hasRemaining()) {
+                values[position++] = buffer.getInt();
+            }
+        }
+    }
+}
@@ -0,0 +1,19 @@
+package com.relaxingleg.pathfinding.search;
+
+/**
+ * The ways the landmarks of a LandmarkHeuristic can be chosen
+ * @author Matt
+ */
+public enum LandmarkSelection {
+    /**
+     * Each landmark is the cell furthest from the ones already chosen, which spreads them around the edge of the map
+     * Only one cheap search is needed per landmark to choose them, then all the tables are built at the same time
+     */
+    FARTHEST,
+    /**
+     * Each landmark is put where the ones already chosen give the worst estimates from a random cell, which is better
+     * on maps with lots of rooms and dead ends
+     * Each choice needs the tables of the landmarks before it, so the tables are built one at a time
+     */
+    AVOID
+}
@@ -0,0 +1,235 @@
+package com.relaxingleg.pathfinding.search;
+
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+import java.util.PrimitiveIterator;
+
+/**
+ * The result of a search, the cells from the start to the goal packed into an int array
+ * It can also be written as runs of moves in the same direction, which is much smaller for paths with long straight parts
+ * A path found in a window of a bigger world is offset, its X and Y coordinates are in the world but its cell indices
+ * are still from the window, so only getX and getY give world coordinates and it can't be written as runs
+ * @author Matt
+ */
+public class Path {
+
+    private static final int[] DIRECTION_X = {1, 1, 0, -1, -1, -1, 0, 1};
+    private static final int[] DIRECTION_Y = {0, 1, 1, 1, 0, -1, -1, -1};
+    private static final int DIRECTION_BITS = 3;
+
+    private final int[] cells;
+    private final int width;
+    private final int cost;
+    private final int originX, originY;
+    private final SearchStats stats;
+
+    /**
+     * Creates a path
+     * @param cells The cell indices from the start to the goal, empty if there is no path
+     * @param width The width of the grid the indices are from
+     * @param cost The G cost of the goal
+     */
+    public Path(int[] cells, int width, int cost) {
+        this(cells, width, cost, 0, 0, SearchStats.NONE);
+    }
+
+    private Path(int[] cells, int width, int cost, int originX, int originY, SearchStats stats) {
+        this.cells = cells;
+        this.width = width;
+        this.cost = cost;
+        this.originX = originX;
+        this.originY = originY;
+        this.stats = stats;
+    }
+
+    /**
+     * Moves the path, used when it was found in a window of a bigger world
+     * The coordinates are moved but the cell indices are still from the grid the path was found in, so the moved path
+     * can't be written as runs
+     * @param x How far to move the X coordinates
+     * @param y How far to move the Y coordinates
+     * @return The moved path
+     */
+    public Path offset(int x, int y) {
+        return new Path(cells, width, cost, originX + x, originY + y, stats);
+    }
+
+    /**
+     * Gives the path the stats of the search that found it, the cells are shared rather than copied
+     * @param stats The stats of the search
+     * @return The path with the stats
+     */
+    public Path withStats(SearchStats stats) {
+        return new Path(cells, width, cost, originX, originY, stats);
+    }
+
+    /**
+     * Checks if the search failed to find a path
+     * @return If there is no path
+     */
+    public boolean isEmpty() {
+        return cells.length == 0;
+    }
+
+    /**
+     * Gets the amount of cells in the path, including the start and goal
+     * @return The path length
+     */
+    public int length() {
+        return cells.length;
+    }
+
+    /**
+     * Gets the X coordinate of a cell in the path
+     * @param i The position in the path
+     * @return The X coordinate
+     */
+    public int getX(int i) {
+        return originX + cells[i] % width;
+    }
+
+    /**
+     * Gets the Y coordinate of a cell in the path
+     * @param i The position in the path
+     * @return The Y coordinate
+     */
+    public int getY(int i) {
+        return originY + cells[i] / width;
+    }
+
+    /**
+     * Gets the cell index of a cell in the path, in the grid the path was found in even if it is offset
+     * @param i The position in the path
+     * @return The cell index
+     */
+    public int getCell(int i) {
+        return cells[i];
+    }
+
+    /**
+     * Getter for the path cost
+     * @return The cost of the path, -1 if there is no path
+     */
+    public int getCost() {
+        return cost;
+    }
+
+    /**
+     * Getter for the stats of the search that found the path
+     * @return The stats, SearchStats.NONE if the path didn't come from an engine with a recorder set
+     */
+    public SearchStats getStats() {
+        return stats;
+    }
+
+    /**
+     * Goes through the cell indices from the start to the goal without copying them, they aren't offset
+     * @return An iterator over the cell indices
+     */
+    public PrimitiveIterator.OfInt iterator() {
+        return new PrimitiveIterator.OfInt() {
+            private int position = 0;
+
+            @Override
+            public boolean hasNext() {
+                return position < cells.length;
+            }
+
+            @Override
+            public int nextInt() {
+                if(position == cells.length) throw new NoSuchElementException("Path has no more cells");
+                return cells[position++];
+            }
+        };
+    }
+
+    /**
+     * Copies the cell indices into an existing array, so a caller can reuse one buffer for many paths, they aren't offset
+     * @param destination The array to copy into
+     * @param offset Where in the array to start
+     */
+    public void copyCells(int[] destination, int offset) {
+        System.arraycopy(cells, 0, destination, offset, cells.length);
+    }
+
+    /**
+     * Gets a copy of the cell indices, they aren't offset
+     * @return The cell indices from the start to the goal
+     */
+    public int[] toArray() {
+        return Arrays.copyOf(cells, cells.length);
+    }
+
+    /**
+     * Writes the path as runs of single cell moves in the same direction
+     * The first value is the start cell index, then each run is its length shifted left 3 bits with the direction in the
+     * bottom 3 bits, the directions go clockwise from right (0) through down (2), left (4) and up (6)
+     * @return The runs, empty if there is no path
+     * @throws IllegalStateException If the path is offset, since the start index would be read back in the wrong place
+     */
+    public int[] toRuns() {
+        if(originX != 0 || originY != 0) {
+            throw new IllegalStateException("An offset path can't be written as runs, its cell indices aren't in world coordinates");
+        }
+        if(cells.length == 0) return new int[0];
+        int runCount = 0;
+        int lastDirection = -1;
+        for(int i = 1; i < cells.length; i++) {
+            int direction = getDirection(i);
+            if(direction != lastDirection) runCount++;
+            lastDirection = direction;
+        }
+        int[] runs = new int[runCount + 1];
+        runs[0] = cells[0];
+        int run = 0;
+        lastDirection = -1;
+        for(int i = 1; i < cells.length; i++) {
+            int direction = getDirection(i);
+            if(direction != lastDirection) {
+                run++;
+                runs[run] = direction;
+                lastDirection = direction;
+            }
+            runs[run] += 1 << DIRECTION_BITS;
+        }
+        return runs;
+    }
+
+    /**
+     * Reads a path written by toRuns
+     * @param runs The start cell index followed by the runs
+     * @param width The width of the grid the indices are from
+     * @param cost The cost of the path, -1 if there is no path
+     * @return The path
+     */
+    public static Path fromRuns(int[] runs, int width, int cost) {
+        if(runs.length == 0) return new Path(new int[0], width, cost);
+        int length = 1;
+        for(int i = 1; i < runs.length; i++) {
+            length += runs[i] >>> DIRECTION_BITS;
+        }
+        int[] cells = new int[length];
+        int x = runs[0] % width;
+        int y = runs[0] / width;
+        int position = 0;
+        cells[position++] = runs[0];
+        for(int i = 1; i < runs.length; i++) {
+            int direction = runs[i] & ((1 << DIRECTION_BITS) - 1);
+            for(int step = runs[i] >>> DIRECTION_BITS; step > 0; step--) {
+                x += DIRECTION_X[direction];
+                y += DIRECTION_Y[direction];
+                cells[position++] = y*width + x;
+            }
+        }
+        return new Path(cells, width, cost);
+    }
+
+    private int getDirection(int i) {
+        int stepX = Integer.signum(getX(i) - getX(i-1));
+        int stepY = Integer.signum(getY(i) - getY(i-1));
+        for(int direction = 0; direction < DIRECTION_X.length; direction++) {
+            if(DIRECTION_X[direction] == stepX && DIRECTION_Y[direction] == stepY) return direction;
+        }
+        throw new IllegalStateException("Cells " + (i-1) + " and " + i + " of the path aren't neighbours");
+    }
+}
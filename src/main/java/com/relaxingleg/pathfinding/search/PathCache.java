@@ -0,0 +1,202 @@
+package com.relaxingleg.pathfinding.search;
+
+import com.relaxingleg.pathfinding.grid.Grid;
+import com.relaxingleg.pathfinding.grid.GridListener;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Remembers the paths found by an engine so repeated queries are just a lookup
+ * The least recently used path is dropped when the cache is full
+ * When a cell is blocked only the paths that go through it are dropped, and when a cell is unblocked only the
+ * paths that a detour through it could beat are dropped, along with any cached failures
+ * It isn't thread safe, each thread should have its own cache and engine
+ * @author Matt
+ */
+public class PathCache implements GridListener {
+
+    private final PathfindingEngine engine;
+    private final Grid grid;
+    private final Map<Long, Entry> entries;
+    private long version;
+    private long hits, misses, evictions, invalidations;
+
+    /**
+     * Creates a cache in front of an engine and starts listening to its grid for changes
+     * @param engine The engine to find paths with when they aren't cached
+     * @param maxEntries The most paths to keep at once
+     */
+    public PathCache(PathfindingEngine engine, int maxEntries) {
+        if(maxEntries <= 0) throw new IllegalArgumentException("Cache must hold at least one path, got " + maxEntries);
+        this.engine = engine;
+        this.grid = engine.getGrid();
+        this.version = grid.getVersion();
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, Entry> eldest) {
+                if(size() <= maxEntries) return false;
+                evictions++;
+                return true;
+            }
+        };
+        grid.addListener(this);
+    }
+
+    /**
+     * Gets a path from the cache, or finds it with the engine and caches it
+     * @param startX The X coordinate of the start cell
+     * @param startY The Y coordinate of the start cell
+     * @param goalX The X coordinate of the goal cell
+     * @param goalY The Y coordinate of the goal cell
+     * @return The path, empty if the goal can't be reached
+     */
+    public Path findPath(int startX, int startY, int goalX, int goalY) {
+        if(version != grid.getVersion()) {
+            invalidations += entries.size();
+            entries.clear();
+            version = grid.getVersion();
+        }
+        if(!grid.contains(startX, startY) || !grid.contains(goalX, goalY)) {
+            return engine.findPath(startX, startY, goalX, goalY);
+        }
+        Long key = (long)grid.index(startX, startY)*grid.getCellCount() + grid.index(goalX, goalY);
+        Entry entry = entries.get(key);
+        if(entry != null) {
+            hits++;
+            return entry.path;
+        }
+        misses++;
+        Path path = engine.findPath(startX, startY, goalX, goalY);
+        entries.put(key, new Entry(path, startX, startY, goalX, goalY));
+        return path;
+    }
+
+    @Override
+    public void cellChanged(int x, int y, boolean blocked) {
+        Iterator<Entry> iterator = entries.values().iterator();
+        while(iterator.hasNext()) {
+            Entry entry = iterator.next();
+            if(blocked ? entry.passesThrough(x, y, grid.index(x, y)) : entry.isAffectedByOpening(x, y)) {
+                iterator.remove();
+                invalidations++;
+            }
+        }
+        version = grid.getVersion();
+    }
+
+    @Override
+    public void gridCleared() {
+        invalidations += entries.size();
+        entries.clear();
+        version = grid.getVersion();
+    }
+
+    /**
+     * Drops every cached path
+     */
+    public void clear() {
+        entries.clear();
+    }
+
+    /**
+     * Stops listening to the grid, the cache will be emptied the next time it is used if the grid changed
+     */
+    public void detach() {
+        grid.removeListener(this);
+    }
+
+    /**
+     * Getter for the amount of cached paths
+     * @return The amount of cached paths
+     */
+    public int size() {
+        return entries.size();
+    }
+
+    /**
+     * Getter for the amount of queries that were answered from the cache
+     * @return Hit count
+     */
+    public long getHits() {
+        return hits;
+    }
+
+    /**
+     * Getter for the amount of queries that had to be searched
+     * @return Miss count
+     */
+    public long getMisses() {
+        return misses;
+    }
+
+    /**
+     * Getter for the amount of paths dropped because the cache was full
+     * @return Eviction count
+     */
+    public long getEvictions() {
+        return evictions;
+    }
+
+    /**
+     * Getter for the amount of paths dropped because the grid changed
+     * @return Invalidation count
+     */
+    public long getInvalidations() {
+        return invalidations;
+    }
+
+    /**
+     * A cached path with its bounding box
+     */
+    private static class Entry {
+
+        private final Path path;
+        private final int startX, startY, goalX, goalY;
+        private final int minX, minY, maxX, maxY;
+
+        private Entry(Path path, int startX, int startY, int goalX, int goalY) {
+            this.path = path;
+            this.startX = startX;
+            this.startY = startY;
+            this.goalX = goalX;
+            this.goalY = goalY;
+            int minX = Math.min(startX, goalX);
+            int minY = Math.min(startY, goalY);
+            int maxX = Math.max(startX, goalX);
+            int maxY = Math.max(startY, goalY);
+            for(int i = 0; i < path.length(); i++) {
+                minX = Math.min(minX, path.getX(i));
+                minY = Math.min(minY, path.getY(i));
+                maxX = Math.max(maxX, path.getX(i));
+                maxY = Math.max(maxY, path.getY(i));
+            }
+            this.minX = minX;
+            this.minY = minY;
+            this.maxX = maxX;
+            this.maxY = maxY;
+        }
+
+        private boolean contains(int x, int y) {
+            return x >= minX && x <= maxX && y >= minY && y <= maxY;
+        }
+
+        private boolean passesThrough(int x, int y, int cell) {
+            if(path.isEmpty() || !contains(x, y)) return false;
+            for(int i = 0; i < path.length(); i++) {
+                if(path.getCell(i) == cell) return true;
+            }
+            return false;
+        }
+
+        /**
+         * Any new path has to go through the opened cell, so it can only be cheaper if the
+         * straight line distance through that cell is less than the cost of the cached path
+         */
+        private boolean isAffectedByOpening(int x, int y) {
+            if(path.isEmpty()) return true;
+            return PathfindingEngine.getDistance(startX, startY, x, y) + PathfindingEngine.getDistance(x, y, goalX, goalY) < path.getCost();
+        }
+    }
+}
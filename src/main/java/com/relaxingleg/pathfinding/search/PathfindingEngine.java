@@ -0,0 +1,372 @@
+package com.relaxingleg.pathfinding.search;
+
+import com.relaxingleg.pathfinding.grid.ComponentIndex;
+import com.relaxingleg.pathfinding.grid.Grid;
+import com.relaxingleg.pathfinding.utils.IntQueue;
+import jdk.jfr.EventType;
+
+/**
+ * Runs the A* algorithm on a grid
+ * It can either find a whole path in one call or be stepped one cell at a time
+ * @author Matt
+ */
+public class PathfindingEngine {
+
+    public static final int STRAIGHT_COST = 10;
+    public static final int DIAGONAL_COST = 14;
+    private static final Path NO_PATH = new Path(new int[0], 1, -1);
+    private static final EventType SEARCH_EVENT_TYPE = EventType.getEventType(SearchEvent.class);
+    protected final Grid grid;
+    protected final SearchContext context;
+    private IntQueue open;
+    private QueueType queueType = QueueType.HEAP;
+    private Heuristic heuristic = Heuristic.OCTILE;
+    private ComponentIndex components;
+    private SearchRecorder recorder = SearchRecorder.NONE;
+    private int expandedCount, evaluatedCount, openedCount, reparentedCount, peakOpenCount;
+    private long startTime;
+    private SearchEvent event;
+    protected int goal, goalX, goalY;
+    private boolean finished = true;
+    private Path path = NO_PATH;
+    private SearchListener listener;
+
+    /**
+     * Creates an engine for a grid
+     * @param grid The grid to search
+     */
+    public PathfindingEngine(Grid grid) {
+        this(grid, new SearchContext(grid.getCellCount()));
+    }
+
+    /**
+     * Creates an engine for a grid that uses an existing context, so engines that take turns can share the memory
+     * @param grid The grid to search
+     * @param context The context to keep the search state in, it must have room for every cell of the grid
+     */
+    public PathfindingEngine(Grid grid, SearchContext context) {
+        if(context.size() < grid.getCellCount()) {
+            throw new IllegalArgumentException("Context has room for " + context.size() + " cells but the grid has " + grid.getCellCount());
+        }
+        this.grid = grid;
+        this.context = context;
+        this.open = context.getQueue(queueType);
+    }
+
+    /**
+     * Finds a path in one go
+     * @param startX The X coordinate of the start cell
+     * @param startY The Y coordinate of the start cell
+     * @param goalX The X coordinate of the goal cell
+     * @param goalY The Y coordinate of the goal cell
+     * @return The path, empty if the goal can't be reached
+     */
+    public Path findPath(int startX, int startY, int goalX, int goalY) {
+        start(startX, startY, goalX, goalY);
+        while(!step());
+        return path;
+    }
+
+    /**
+     * Sets up a new search without running any of it
+     * @param startX The X coordinate of the start cell
+     * @param startY The Y coordinate of the start cell
+     * @param goalX The X coordinate of the goal cell
+     * @param goalY The Y coordinate of the goal cell
+     */
+    public void start(int startX, int startY, int goalX, int goalY) {
+        this.goalX = goalX;
+        this.goalY = goalY;
+        context.begin();
+        open = context.getQueue(queueType);
+        path = NO_PATH;
+        expandedCount = 0;
+        evaluatedCount = 0;
+        openedCount = 0;
+        reparentedCount = 0;
+        peakOpenCount = 0;
+        startTime = System.nanoTime();
+        // The event is only made while a recording has it turned on, so searches don't allocate anything for it
+        event = null;
+        if(SEARCH_EVENT_TYPE.isEnabled()) {
+            event = new SearchEvent();
+            event.begin();
+        }
+        finished = false;
+        if(!grid.isWalkable(startX, startY) || !grid.isWalkable(goalX, goalY)
+                || (components != null && !components.isConnected(startX, startY, goalX, goalY))) {
+            finish(NO_PATH);
+            return;
+        }
+
+        goal = grid.index(goalX, goalY);
+        int start = grid.index(startX, startY);
+        context.open(start, 0, heuristic.estimate(startX, startY, goalX, goalY), -1);
+        open.put(start);
+        openedCount = 1;
+        peakOpenCount = 1;
+        if(listener != null) listener.cellOpened(startX, startY);
+    }
+
+    /**
+     * Expands the next cell of the search
+     * @return If the search has finished
+     */
+    public boolean step() {
+        if(finished) return true;
+        if(open.isEmpty()) {
+            finish(NO_PATH);
+            return true;
+        }
+
+        int currentNode = open.pop();
+        context.close(currentNode);
+        expandedCount++;
+        if(listener != null) listener.cellClosed(grid.getX(currentNode), grid.getY(currentNode));
+
+        if(currentNode == goal) {
+            finish(retracePath(currentNode));
+            return true;
+        }
+
+        expand(currentNode);
+        return false;
+    }
+
+    /**
+     * Adds the neighbours of a cell to the open set
+     * @param currentNode The index of the cell being expanded
+     */
+    protected void expand(int currentNode) {
+        int currentX = grid.getX(currentNode);
+        int currentY = grid.getY(currentNode);
+        int gCost = context.gCost[currentNode];
+        for(int y = -1; y < 2; y++) {
+            for(int x = -1; x < 2; x++) {
+                if(x == 0 && y == 0) continue;
+                int neighbourX = currentX + x;
+                int neighbourY = currentY + y;
+                if(!grid.isWalkable(neighbourX, neighbourY)) continue;
+                int moveCost = (x != 0 && y != 0) ? DIAGONAL_COST : STRAIGHT_COST;
+                visit(currentNode, neighbourX, neighbourY, gCost + moveCost);
+            }
+        }
+    }
+
+    /**
+     * Opens a cell or gives it a cheaper parent
+     * @param parent The index of the cell it is reached from
+     * @param x The X coordinate of the cell
+     * @param y The Y coordinate of the cell
+     * @param newGCost The G cost of reaching the cell through the parent
+     */
+    protected void visit(int parent, int x, int y, int newGCost) {
+        int node = grid.index(x, y);
+        byte state = context.getState(node);
+        evaluatedCount++;
+        if(state == SearchContext.UNSEEN) {
+            context.open(node, newGCost, heuristic.estimate(x, y, goalX, goalY), parent);
+            open.put(node);
+            openedCount++;
+            // Every cell opened is either still open or has been expanded
+            peakOpenCount = Math.max(peakOpenCount, openedCount - expandedCount);
+            if(listener != null) listener.cellOpened(x, y);
+        } else if(state == SearchContext.OPEN && newGCost < context.gCost[node]) {
+            context.parent[node] = parent;
+            context.gCost[node] = newGCost;
+            open.decreaseKey(node);
+            reparentedCount++;
+        }
+    }
+
+    private void finish(Path found) {
+        path = found;
+        finished = true;
+        // Nothing is made for the stats unless something is going to read them
+        if(recorder != SearchRecorder.NONE) {
+            SearchStats stats = new SearchStats(!found.isEmpty(), expandedCount, evaluatedCount, openedCount,
+                    reparentedCount, peakOpenCount, System.nanoTime() - startTime);
+            path = found.withStats(stats);
+            recorder.record(stats);
+        }
+        if(event != null && event.shouldCommit()) {
+            event.engine = getClass().getSimpleName();
+            event.gridWidth = grid.getWidth();
+            event.gridHeight = grid.getHeight();
+            event.expanded = expandedCount;
+            event.pathLength = found.length();
+            event.cost = found.getCost();
+            event.commit();
+        }
+    }
+
+    private Path retracePath(int goal) {
+        int length = 1;
+        for(int node = goal; context.parent[node] != -1; node = context.parent[node]) {
+            length += getSteps(node, context.parent[node]);
+        }
+        int[] cells = new int[length];
+        cells[--length] = goal;
+        for(int node = goal; context.parent[node] != -1; node = context.parent[node]) {
+            int parent = context.parent[node];
+            int x = grid.getX(node);
+            int y = grid.getY(node);
+            int stepX = Integer.signum(grid.getX(parent) - x);
+            int stepY = Integer.signum(grid.getY(parent) - y);
+            for(int i = getSteps(node, parent); i > 0; i--) {
+                x += stepX;
+                y += stepY;
+                cells[--length] = grid.index(x, y);
+            }
+        }
+        return new Path(cells, grid.getWidth(), context.gCost[goal]);
+    }
+
+    /**
+     * Gets how many single cell moves there are between a cell and its parent
+     * Parents are normally neighbours but engines that skip cells can link cells in a straight or diagonal line
+     */
+    private int getSteps(int node, int parent) {
+        return Math.max(Math.abs(grid.getX(node) - grid.getX(parent)), Math.abs(grid.getY(node) - grid.getY(parent)));
+    }
+
+    /**
+     * Gets the octile distance between two cells using the straight and diagonal costs
+     * @param x1 The X coordinate of the first cell
+     * @param y1 The Y coordinate of the first cell
+     * @param x2 The X coordinate of the second cell
+     * @param y2 The Y coordinate of the second cell
+     * @return The distance
+     */
+    public static int getDistance(int x1, int y1, int x2, int y2) {
+        int distanceX = Math.abs(x1 - x2);
+        int distanceY = Math.abs(y1 - y2);
+
+        if(distanceX > distanceY) {
+            return DIAGONAL_COST*distanceY + STRAIGHT_COST*(distanceX-distanceY);
+        } else {
+            return DIAGONAL_COST*distanceX + STRAIGHT_COST*(distanceY-distanceX);
+        }
+    }
+
+    /**
+     * Checks if the current search has finished
+     * @return If the search has finished
+     */
+    public boolean isFinished() {
+        return finished;
+    }
+
+    /**
+     * Gets the path found by the last search
+     * @return The path, empty if none was found or the search hasn't finished
+     */
+    public Path getPath() {
+        return path;
+    }
+
+    /**
+     * Getter for the grid
+     * @return The grid being searched
+     */
+    public Grid getGrid() {
+        return grid;
+    }
+
+    /**
+     * Getter for the search state of every cell
+     * @return The search context
+     */
+    public SearchContext getContext() {
+        return context;
+    }
+
+    /**
+     * Getter for the kind of open list
+     * @return The kind of open list searches use
+     */
+    public QueueType getQueueType() {
+        return queueType;
+    }
+
+    /**
+     * Setter for the kind of open list, it takes effect when the next search starts
+     * @param queueType The kind of open list to use
+     */
+    public void setQueueType(QueueType queueType) {
+        this.queueType = queueType;
+    }
+
+    /**
+     * Getter for the heuristic
+     * @return The heuristic used to estimate the cost to the goal
+     */
+    public Heuristic getHeuristic() {
+        return heuristic;
+    }
+
+    /**
+     * Setter for the heuristic, it should be set before a search starts
+     * @param heuristic The heuristic, such as Heuristic.OCTILE or a LandmarkHeuristic for this grid
+     */
+    public void setHeuristic(Heuristic heuristic) {
+        this.heuristic = heuristic;
+    }
+
+    /**
+     * Getter for the component index
+     * @return The index used to turn down searches that can't reach the goal, or null if there is none
+     */
+    public ComponentIndex getComponents() {
+        return components;
+    }
+
+    /**
+     * Setter for the component index, with one a search for a goal that can't be reached finishes as soon as it starts
+     * @param components An index for this grid, or null to always search
+     */
+    public void setComponents(ComponentIndex components) {
+        this.components = components;
+    }
+
+    /**
+     * Getter for the search recorder
+     * @return The recorder told about every search, SearchRecorder.NONE if there is none
+     */
+    public SearchRecorder getRecorder() {
+        return recorder;
+    }
+
+    /**
+     * Setter for the search recorder, such as a SearchMetrics shared by several engines
+     * Paths only carry their stats while a recorder is set, any recorder will do if only the stats are wanted
+     * @param recorder The recorder to tell about every search, or SearchRecorder.NONE for none
+     */
+    public void setRecorder(SearchRecorder recorder) {
+        this.recorder = recorder;
+    }
+
+    /**
+     * Gets how many cells the current search has expanded, which is most of the cost of a search
+     * @return The amount of cells taken off the open set
+     */
+    public int getExpandedCount() {
+        return expandedCount;
+    }
+
+    /**
+     * Getter for the search listener
+     * @return The listener, or null if there is none
+     */
+    public SearchListener getListener() {
+        return listener;
+    }
+
+    /**
+     * Setter for the search listener
+     * @param listener The listener to tell about the search, or null for none
+     */
+    public void setListener(SearchListener listener) {
+        this.listener = listener;
+    }
+}
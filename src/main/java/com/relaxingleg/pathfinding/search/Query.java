@@ -0,0 +1,12 @@
+package com.relaxingleg.pathfinding.search;
+
+/**
+ * A request for a path from a start cell to a goal cell
+ * @param startX The X coordinate of the start cell
+ * @param startY The Y coordinate of the start cell
+ * @param goalX The X coordinate of the goal cell
+ * @param goalY The Y coordinate of the goal cell
+ * @author Matt
+ */
+public record Query(int startX, int startY, int goalX, int goalY) {
+}
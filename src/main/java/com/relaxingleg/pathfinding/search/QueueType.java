@@ -0,0 +1,18 @@
+package com.relaxingleg.pathfinding.search;
+
+/**
+ * The kinds of open list a search can use
+ * @author Matt
+ */
+public enum QueueType {
+
+    /**
+     * A binary heap ordered by F cost and then H cost, O(log n) to put and pop
+     */
+    HEAP,
+    /**
+     * A bucket per F cost, O(1) to put and pop since the costs are small ints that only go up as the search goes on
+     * Cells with the same F cost come out highest G cost first, like the heap, by splitting the lowest bucket on H cost
+     */
+    BUCKETS
+}
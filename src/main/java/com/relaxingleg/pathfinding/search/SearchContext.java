@@ -0,0 +1,150 @@
+package com.relaxingleg.pathfinding.search;
+
+import com.relaxingleg.pathfinding.utils.BucketQueue;
+import com.relaxingleg.pathfinding.utils.IntHeap;
+import com.relaxingleg.pathfinding.utils.IntQueue;
+
+import java.util.Arrays;
+
+/**
+ * Holds all the memory a search needs, the state of every cell in flat arrays indexed by y*width+x and the open lists
+ * It is made once and reused for every query, so a search never allocates anything while it runs
+ * Instead of clearing every cell before a query, each cell is stamped with the query it was last touched by,
+ * and a cell with an old stamp counts as unseen
+ * It can be shared by engines on the same thread, but only one search can use it at a time
+ * @author Matt
+ */
+public class SearchContext {
+
+    public static final byte UNSEEN = 0;
+    public static final byte OPEN = 1;
+    public static final byte CLOSED = 2;
+    final int[] gCost;
+    final int[] hCost;
+    final int[] parent;
+    private final byte[] state;
+    private final int[] stamp;
+    private final IntHeap heap;
+    private BucketQueue buckets;
+    private int generation = 0;
+
+    /**
+     * Creates a context for a number of cells
+     * @param cellCount The amount of cells in the grid
+     */
+    public SearchContext(int cellCount) {
+        gCost = new int[cellCount];
+        hCost = new int[cellCount];
+        parent = new int[cellCount];
+        state = new byte[cellCount];
+        stamp = new int[cellCount];
+        heap = new IntHeap(this::compareNodes, cellCount);
+    }
+
+    /**
+     * Starts a new query, every cell becomes unseen and the open lists are emptied
+     */
+    public void begin() {
+        generation++;
+        if(generation == 0) {
+            // The stamps have wrapped around, so old ones could match again
+            Arrays.fill(stamp, 0);
+            generation = 1;
+        }
+        heap.clear();
+        if(buckets != null) buckets.clear();
+    }
+
+    /**
+     * Gets the open list for a query, it is only made the first time it is asked for
+     * @param queueType The kind of open list
+     * @return The open list
+     */
+    IntQueue getQueue(QueueType queueType) {
+        if(queueType == QueueType.HEAP) return heap;
+        if(buckets == null) {
+            // Ties on F go to the lowest H, which is the highest G, the same as the heap
+            buckets = new BucketQueue(node -> gCost[node] + hCost[node], node -> hCost[node], state.length);
+        }
+        return buckets;
+    }
+
+    /**
+     * Sets up a cell the first time the search reaches it
+     * @param node The cell index
+     * @param gCost The G cost of the cell
+     * @param hCost The H cost of the cell
+     * @param parent The cell index it was reached from, -1 for the start
+     */
+    void open(int node, int gCost, int hCost, int parent) {
+        this.gCost[node] = gCost;
+        this.hCost[node] = hCost;
+        this.parent[node] = parent;
+        this.state[node] = OPEN;
+        this.stamp[node] = generation;
+    }
+
+    /**
+     * Marks a cell as expanded, it must have been opened by the current query
+     * @param node The cell index
+     */
+    void close(int node) {
+        state[node] = CLOSED;
+    }
+
+    /**
+     * Getter for the G cost of a cell
+     * @param node The cell index
+     * @return G cost, only meaningful if the cell isn't unseen
+     */
+    public int getgCost(int node) {
+        return gCost[node];
+    }
+
+    /**
+     * Getter for the H cost of a cell
+     * @param node The cell index
+     * @return H cost, only meaningful if the cell isn't unseen
+     */
+    public int gethCost(int node) {
+        return hCost[node];
+    }
+
+    /**
+     * Getter for the parent of a cell
+     * @param node The cell index
+     * @return The parent cell index, -1 if it has none, only meaningful if the cell isn't unseen
+     */
+    public int getParent(int node) {
+        return parent[node];
+    }
+
+    /**
+     * Getter for the state of a cell in the current query
+     * @param node The cell index
+     * @return UNSEEN, OPEN or CLOSED
+     */
+    public byte getState(int node) {
+        return stamp[node] == generation ? state[node] : UNSEEN;
+    }
+
+    /**
+     * Gets the amount of cells in the context
+     * @return The amount of cells
+     */
+    public int size() {
+        return state.length;
+    }
+
+    private int compareNodes(int node1, int node2) {
+        int node1FCost = gCost[node1] + hCost[node1];
+        int node2FCost = gCost[node2] + hCost[node2];
+
+        if(node1FCost < node2FCost) {
+            return 1;
+        } else if(node1FCost > node2FCost) {
+            return -1;
+        }
+        return Integer.compare(hCost[node2], hCost[node1]);
+    }
+}
@@ -0,0 +1,39 @@
+package com.relaxingleg.pathfinding.search;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * A Java Flight Recorder event that starts when an engine starts a search and ends when the search finishes
+ * It is off unless a recording turns it on, engines only make one while it is on and only fill in the fields if it is
+ * going to be written
+ * @author Matt
+ */
+@Name("com.relaxingleg.pathfinding.Search")
+@Label("Search")
+@Category("Pathfinding")
+@Description("A search from starting to finishing, including any time between steps")
+@Enabled(false)
+@StackTrace(false)
+class SearchEvent extends Event {
+
+    @Label("Engine")
+    String engine;
+    @Label("Grid Width")
+    int gridWidth;
+    @Label("Grid Height")
+    int gridHeight;
+    @Label("Expanded")
+    @Description("Cells taken off the open set")
+    int expanded;
+    @Label("Path Length")
+    @Description("Cells in the path including the start and goal, 0 if no path was found")
+    int pathLength;
+    @Label("Path Cost")
+    int cost;
+}
@@ -0,0 +1,22 @@
+package com.relaxingleg.pathfinding.search;
+
+/**
+ * Gets told about the progress of a search, used to draw the search as it happens
+ * @author Matt
+ */
+public interface SearchListener {
+
+    /**
+     * Called when a cell is added to the open set
+     * @param x The X coordinate of the cell
+     * @param y The Y coordinate of the cell
+     */
+    void cellOpened(int x, int y);
+
+    /**
+     * Called when a cell is moved to the closed set
+     * @param x The X coordinate of the cell
+     * @param y The Y coordinate of the cell
+     */
+    void cellClosed(int x, int y);
+}
@@ -0,0 +1,141 @@
+package com.relaxingleg.pathfinding.search;
+
+import com.relaxingleg.pathfinding.utils.Histogram;
+
+import javax.management.JMException;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Adds up the stats of every search it is given, and keeps histograms of how long they took and how many cells they
+ * expanded, so it can be set as the recorder of any number of engines on any threads
+ * It can be registered as an MBean to be read with JConsole or anything else that speaks JMX
+ * @author Matt
+ */
+public class SearchMetrics implements SearchRecorder, SearchMetricsMXBean {
+
+    private final LongAdder searches = new LongAdder();
+    private final LongAdder found = new LongAdder();
+    private final LongAdder expanded = new LongAdder();
+    private final LongAdder evaluated = new LongAdder();
+    private final LongAdder opened = new LongAdder();
+    private final LongAdder reparented = new LongAdder();
+    private final LongAccumulator peakOpen = new LongAccumulator(Math::max, 0);
+    private final Histogram latencies = new Histogram();
+    private final Histogram expansions = new Histogram();
+
+    @Override
+    public void record(SearchStats stats) {
+        searches.increment();
+        if(stats.found()) found.increment();
+        expanded.add(stats.expanded());
+        evaluated.add(stats.evaluated());
+        opened.add(stats.opened());
+        reparented.add(stats.reparented());
+        peakOpen.accumulate(stats.peakOpen());
+        synchronized(this) {
+            latencies.record(stats.nanos());
+            expansions.record(stats.expanded());
+        }
+    }
+
+    /**
+     * Registers this with the platform MBean server so it shows up over JMX
+     * @param name The name to tell it apart from other metrics, such as the name of the grid
+     * @return The name it was registered under
+     * @throws JMException If the name is taken or can't be used
+     */
+    public ObjectName register(String name) throws JMException {
+        ObjectName objectName = new ObjectName("com.relaxingleg.pathfinding:type=SearchMetrics,name=" + ObjectName.quote(name));
+        ManagementFactory.getPlatformMBeanServer().registerMBean(this, objectName);
+        return objectName;
+    }
+
+    @Override
+    public long getSearchCount() {
+        return searches.sum();
+    }
+
+    @Override
+    public long getFoundCount() {
+        return found.sum();
+    }
+
+    @Override
+    public long getExpandedCount() {
+        return expanded.sum();
+    }
+
+    @Override
+    public long getEvaluatedCount() {
+        return evaluated.sum();
+    }
+
+    @Override
+    public long getOpenedCount() {
+        return opened.sum();
+    }
+
+    @Override
+    public long getReparentedCount() {
+        return reparented.sum();
+    }
+
+    @Override
+    public long getPeakOpenSize() {
+        return peakOpen.get();
+    }
+
+    @Override
+    public synchronized double getMeanLatencyMicros() {
+        return latencies.getMean()/TimeUnit.MICROSECONDS.toNanos(1);
+    }
+
+    @Override
+    public synchronized long getLatencyP50Micros() {
+        return TimeUnit.NANOSECONDS.toMicros(latencies.getPercentile(50));
+    }
+
+    @Override
+    public synchronized long getLatencyP99Micros() {
+        return TimeUnit.NANOSECONDS.toMicros(latencies.getPercentile(99));
+    }
+
+    @Override
+    public synchronized long getMaxLatencyMicros() {
+        return TimeUnit.NANOSECONDS.toMicros(latencies.getMax());
+    }
+
+    @Override
+    public synchronized long getExpandedP50() {
+        return expansions.getPercentile(50);
+    }
+
+    @Override
+    public synchronized long getExpandedP99() {
+        return expansions.getPercentile(99);
+    }
+
+    @Override
+    public synchronized long getMaxExpanded() {
+        return expansions.getMax();
+    }
+
+    @Override
+    public void reset() {
+        searches.reset();
+        found.reset();
+        expanded.reset();
+        evaluated.reset();
+        opened.reset();
+        reparented.reset();
+        peakOpen.reset();
+        synchronized(this) {
+            latencies.reset();
+            expansions.reset();
+        }
+    }
+}
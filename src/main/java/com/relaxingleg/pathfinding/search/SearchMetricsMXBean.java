@@ -0,0 +1,98 @@
+package com.relaxingleg.pathfinding.search;
+
+/**
+ * The totals of every search recorded by a SearchMetrics, as they are shown over JMX
+ * Times are in microseconds
+ * @author Matt
+ */
+public interface SearchMetricsMXBean {
+
+    /**
+     * The amount of searches recorded
+     * @return The amount
+     */
+    long getSearchCount();
+
+    /**
+     * The amount of searches that found a path
+     * @return The amount
+     */
+    long getFoundCount();
+
+    /**
+     * The total cells taken off the open set
+     * @return The amount
+     */
+    long getExpandedCount();
+
+    /**
+     * The total neighbours looked at while expanding
+     * @return The amount
+     */
+    long getEvaluatedCount();
+
+    /**
+     * The total cells put on the open set
+     * @return The amount
+     */
+    long getOpenedCount();
+
+    /**
+     * The total open cells given a cheaper parent
+     * @return The amount
+     */
+    long getReparentedCount();
+
+    /**
+     * The most cells any one search had on its open set at once
+     * @return The amount
+     */
+    long getPeakOpenSize();
+
+    /**
+     * The mean time a search took
+     * @return The time in microseconds
+     */
+    double getMeanLatencyMicros();
+
+    /**
+     * The time half of the searches took less than
+     * @return The time in microseconds
+     */
+    long getLatencyP50Micros();
+
+    /**
+     * The time 99% of the searches took less than
+     * @return The time in microseconds
+     */
+    long getLatencyP99Micros();
+
+    /**
+     * The longest time a search took
+     * @return The time in microseconds
+     */
+    long getMaxLatencyMicros();
+
+    /**
+     * The cells expanded that half of the searches expanded fewer than
+     * @return The amount
+     */
+    long getExpandedP50();
+
+    /**
+     * The cells expanded that 99% of the searches expanded fewer than
+     * @return The amount
+     */
+    long getExpandedP99();
+
+    /**
+     * The most cells one search expanded
+     * @return The amount
+     */
+    long getMaxExpanded();
+
+    /**
+     * Forgets every search recorded so far
+     */
+    void reset();
+}
@@ -0,0 +1,21 @@
+package com.relaxingleg.pathfinding.search;
+
+/**
+ * Gets told the stats of every search an engine finishes
+ * Engines can be run on several threads, so anything shared between engines has to be thread safe
+ * @author Matt
+ */
+@FunctionalInterface
+public interface SearchRecorder {
+
+    /**
+     * Does nothing, the default recorder of an engine, which then doesn't make any stats at all
+     */
+    SearchRecorder NONE = stats -> {};
+
+    /**
+     * Called when a search finishes
+     * @param stats The stats of the search, also on the path it found
+     */
+    void record(SearchStats stats);
+}
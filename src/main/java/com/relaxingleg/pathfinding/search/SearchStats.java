@@ -0,0 +1,20 @@
+package com.relaxingleg.pathfinding.search;
+
+/**
+ * What one search cost, returned with the path it found
+ * @param found If a path to the goal was found
+ * @param expanded The cells popped off the open set, which is also how big the closed set ended up
+ * @param evaluated The neighbours looked at while expanding, whether or not anything changed
+ * @param opened The cells put on the open set
+ * @param reparented The open cells given a cheaper parent, each one is a decrease key on the open set
+ * @param peakOpen The most cells the open set held at once
+ * @param nanos The time from the search starting to it finishing, including any time between steps
+ * @author Matt
+ */
+public record SearchStats(boolean found, int expanded, int evaluated, int opened, int reparented, int peakOpen, long nanos) {
+
+    /**
+     * The stats of a path that didn't come from a search
+     */
+    public static final SearchStats NONE = new SearchStats(false, 0, 0, 0, 0, 0, 0);
+}
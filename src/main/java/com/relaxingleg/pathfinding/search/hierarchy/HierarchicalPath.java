@@ -0,0 +1,104 @@
+package com.relaxingleg.pathfinding.search.hierarchy;
+
+import com.relaxingleg.pathfinding.search.Path;
+
+import java.util.Arrays;
+
+/**
+ * A path through the abstract graph of a hierarchical pathfinder
+ * It only knows its waypoints at first, the cells between them are worked out one segment at a time
+ * Segments should be refined before the grid changes, otherwise they might not join up any more
+ * @author Matt
+ */
+public class HierarchicalPath {
+
+    private final HierarchicalPathfinder pathfinder;
+    private final int[] waypoints;
+    private final int cost;
+    private int nextSegment = 0;
+
+    /**
+     * Creates a path
+     * @param pathfinder The pathfinder that found the path, used to refine it
+     * @param waypoints The grid indices of the waypoints from the start to the goal, empty if there is no path
+     * @param cost The cost of the whole path
+     */
+    HierarchicalPath(HierarchicalPathfinder pathfinder, int[] waypoints, int cost) {
+        this.pathfinder = pathfinder;
+        this.waypoints = waypoints;
+        this.cost = cost;
+    }
+
+    /**
+     * Checks if the search failed to find a path
+     * @return If there is no path
+     */
+    public boolean isEmpty() {
+        return waypoints.length == 0;
+    }
+
+    /**
+     * Checks if there are still segments that haven't been refined
+     * @return If nextSegment can be called
+     */
+    public boolean hasNextSegment() {
+        return nextSegment < waypoints.length - 1;
+    }
+
+    /**
+     * Works out the cells of the next segment of the path
+     * @return The grid indices of the cells after the last waypoint up to and including the next one, null if the grid changed so they can't be joined
+     */
+    public int[] nextSegment() {
+        if(!hasNextSegment()) throw new IllegalStateException("There are no segments left");
+        int[] segment = pathfinder.refine(waypoints[nextSegment], waypoints[nextSegment + 1]);
+        nextSegment++;
+        return segment;
+    }
+
+    /**
+     * Refines every segment that is left and joins them into a normal path
+     * @return The whole path, empty if there is no path or it couldn't be refined
+     */
+    public Path toPath() {
+        int width = pathfinder.getGrid().getWidth();
+        if(isEmpty()) return new Path(new int[0], width, -1);
+        int[] cells = new int[]{waypoints[0]};
+        int length = 1;
+        for(int i = 0; i < waypoints.length - 1; i++) {
+            int[] segment = pathfinder.refine(waypoints[i], waypoints[i + 1]);
+            if(segment == null) return new Path(new int[0], width, -1);
+            if(length + segment.length > cells.length) {
+                cells = Arrays.copyOf(cells, Math.max(cells.length*2, length + segment.length));
+            }
+            System.arraycopy(segment, 0, cells, length, segment.length);
+            length += segment.length;
+        }
+        return new Path(Arrays.copyOf(cells, length), width, cost);
+    }
+
+    /**
+     * Gets the amount of waypoints, including the start and goal
+     * @return The amount of waypoints
+     */
+    public int getWaypointCount() {
+        return waypoints.length;
+    }
+
+    /**
+     * Gets the grid index of a waypoint
+     * @param i The position of the waypoint in the path
+     * @return The grid index
+     */
+    public int getWaypoint(int i) {
+        return waypoints[i];
+    }
+
+    /**
+     * Getter for the path cost
+     * @return The cost of the path, -1 if there is no path
+     */
+    public int getCost() {
+        return cost;
+    }
+}
@@ -0,0 +1,610 @@
+package com.relaxingleg.pathfinding.search.hierarchy;
+
+import com.relaxingleg.pathfinding.grid.Grid;
+import com.relaxingleg.pathfinding.grid.GridListener;
+import com.relaxingleg.pathfinding.grid.PreprocessEvent;
+import com.relaxingleg.pathfinding.search.PathfindingEngine;
+import com.relaxingleg.pathfinding.utils.IntHeap;
+
+import java.util.Arrays;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.stream.IntStream;
+
+/**
+ * Finds long paths with HPA*, the grid is split into square clusters and the crossings between clusters
+ * become the nodes of a much smaller abstract graph
+ * The distances between the crossings of each cluster are cached, so a query only searches the abstract
+ * graph and the cells are worked out one segment at a time when they are needed
+ * When a cell changes only the clusters it touches are rebuilt
+ * @author Matt
+ */
+public class HierarchicalPathfinder implements GridListener {
+
+    private static final int INFINITY = Integer.MAX_VALUE / 4;
+    private static final int SPLIT_ENTRANCE_LENGTH = 6;
+    private static final int PARALLEL_BUILD_CLUSTERS = 64;
+    private static final int[] NO_INTS = new int[0];
+    private final Grid grid;
+    private final int clusterSize;
+    private final int clustersX, clustersY;
+    private final LocalSearch localSearch;
+    // Borrowed by the pool threads while clusters are built in parallel, so there are only as many as ever ran at once
+    private final ConcurrentLinkedQueue<LocalSearch> idleSearches = new ConcurrentLinkedQueue<>();
+
+    private final int[][] verticalTransitions;
+    private final int[][] horizontalTransitions;
+    private final int[][] cornerTransitions;
+    private final boolean[] dirtyVertical;
+    private final boolean[] dirtyHorizontal;
+    private final boolean[] dirtyCorners;
+    private final boolean[] dirtyClusters;
+    private boolean dirty = true;
+
+    private final int[][] clusterNodes;
+    private int[] nodeCell = NO_INTS;
+    private int[] nodeCluster = NO_INTS;
+    private int[] nodeLocal = NO_INTS;
+    private int[][] edgeTargets = new int[0][];
+    private int[][] edgeCosts = new int[0][];
+    private int[] freeNodes = new int[16];
+    private int freeCount;
+    private int nodeCount;
+
+    private int[] gCost = NO_INTS;
+    private int[] fCost = NO_INTS;
+    private int[] parent = NO_INTS;
+    private int[] visited = NO_INTS;
+    private int generation;
+    private IntHeap open;
+    private final int[] startDistances;
+    private final int[] goalDistances;
+
+    /**
+     * Creates the cluster layout for a grid and starts listening for changes
+     * The abstract graph is built the first time a path is asked for
+     * @param grid The grid to search
+     * @param clusterSize The width and height of each cluster in cells
+     */
+    public HierarchicalPathfinder(Grid grid, int clusterSize) {
+        if(clusterSize < 2) throw new IllegalArgumentException("Cluster size must be at least 2, got " + clusterSize);
+        this.grid = grid;
+        this.clusterSize = clusterSize;
+        this.clustersX = (grid.getWidth() + clusterSize - 1) / clusterSize;
+        this.clustersY = (grid.getHeight() + clusterSize - 1) / clusterSize;
+        this.localSearch = new LocalSearch(grid, clusterSize);
+        this.verticalTransitions = new int[Math.max(clustersX - 1, 0)*clustersY][];
+        this.horizontalTransitions = new int[clustersX*Math.max(clustersY - 1, 0)][];
+        this.cornerTransitions = new int[Math.max(clustersX - 1, 0)*Math.max(clustersY - 1, 0)][];
+        this.dirtyVertical = new boolean[verticalTransitions.length];
+        this.dirtyHorizontal = new boolean[horizontalTransitions.length];
+        this.dirtyCorners = new boolean[cornerTransitions.length];
+        this.dirtyClusters = new boolean[clustersX*clustersY];
+        this.clusterNodes = new int[clustersX*clustersY][];
+        this.startDistances = new int[4*clusterSize];
+        this.goalDistances = new int[4*clusterSize];
+        Arrays.fill(clusterNodes, NO_INTS);
+        markAllDirty();
+        grid.addListener(this);
+    }
+
+    /**
+     * Finds a path through the abstract graph, the cells of the path are worked out later
+     * @param startX The X coordinate of the start cell
+     * @param startY The Y coordinate of the start cell
+     * @param goalX The X coordinate of the goal cell
+     * @param goalY The Y coordinate of the goal cell
+     * @return The path, empty if the goal can't be reached
+     */
+    public HierarchicalPath findPath(int startX, int startY, int goalX, int goalY) {
+        rebuild();
+        if(!grid.isWalkable(startX, startY) || !grid.isWalkable(goalX, goalY)) {
+            return new HierarchicalPath(this, NO_INTS, -1);
+        }
+        int start = grid.index(startX, startY);
+        int goal = grid.index(goalX, goalY);
+        if(start == goal) return new HierarchicalPath(this, new int[]{start}, 0);
+
+        int startCluster = getCluster(startX, startY);
+        int goalCluster = getCluster(goalX, goalY);
+        if(startCluster == goalCluster) {
+            int distance = searchCluster(startCluster, start, goal);
+            if(distance != -1) return new HierarchicalPath(this, new int[]{start, goal}, distance);
+        }
+
+        int startNode = findNode(start);
+        int goalNode = findNode(goal);
+        int tempStart = nodeCount;
+        int tempGoal = nodeCount + 1;
+        if(startNode == -1) {
+            startNode = tempStart;
+            fillDistances(startCluster, start, startDistances);
+        }
+        if(goalNode == -1) {
+            goalNode = tempGoal;
+            fillDistances(goalCluster, goal, goalDistances);
+        }
+
+        generation++;
+        open.clear();
+        open(startNode, 0, -1, goalX, goalY, start);
+        while(!open.isEmpty()) {
+            int current = open.pop();
+            if(current == goalNode) return new HierarchicalPath(this, retrace(current, start, goal, tempStart, tempGoal), gCost[current]);
+
+            if(current == tempStart) {
+                int[] nodes = clusterNodes[startCluster];
+                for(int i = 0; i < nodes.length; i++) {
+                    if(startDistances[i] != -1) relax(current, nodes[i], startDistances[i], goalX, goalY, goal, tempGoal);
+                }
+                if(goalNode == tempGoal && startCluster == goalCluster) {
+                    int distance = searchCluster(startCluster, start, goal);
+                    if(distance != -1) relax(current, tempGoal, distance, goalX, goalY, goal, tempGoal);
+                }
+                continue;
+            }
+
+            int[] targets = edgeTargets[current];
+            int[] costs = edgeCosts[current];
+            for(int i = 0; i < targets.length; i++) {
+                relax(current, targets[i], costs[i], goalX, goalY, goal, tempGoal);
+            }
+            if(goalNode == tempGoal && nodeCluster[current] == goalCluster) {
+                int distance = goalDistances[nodeLocal[current]];
+                if(distance != -1) relax(current, tempGoal, distance, goalX, goalY, goal, tempGoal);
+            }
+        }
+        return new HierarchicalPath(this, NO_INTS, -1);
+    }
+
+    /**
+     * Works out the cells between two waypoints of a path, they are either in the same cluster or next to each other
+     * @param from The grid index of the waypoint to start from
+     * @param to The grid index of the waypoint to go to
+     * @return The grid indices of the cells after from up to and including to, null if they can't be joined any more
+     */
+    int[] refine(int from, int to) {
+        int fromX = grid.getX(from);
+        int fromY = grid.getY(from);
+        int toX = grid.getX(to);
+        int toY = grid.getY(to);
+        if(Math.abs(fromX - toX) <= 1 && Math.abs(fromY - toY) <= 1) {
+            return grid.isWalkable(toX, toY) ? new int[]{to} : null;
+        }
+        int cluster = getCluster(fromX, fromY);
+        if(cluster != getCluster(toX, toY)) return null;
+        if(searchCluster(cluster, from, to) == -1) return null;
+        return localSearch.getPath(to);
+    }
+
+    /**
+     * Stops listening to the grid
+     */
+    public void detach() {
+        grid.removeListener(this);
+    }
+
+    @Override
+    public void cellChanged(int x, int y, boolean blocked) {
+        int clusterX = x / clusterSize;
+        int clusterY = y / clusterSize;
+        int localX = x % clusterSize;
+        int localY = y % clusterSize;
+        dirty = true;
+        dirtyClusters[clusterY*clustersX + clusterX] = true;
+        if(localX == 0 && clusterX > 0) markVertical(clusterX - 1, clusterY);
+        if(localX == clusterSize - 1 && clusterX < clustersX - 1) markVertical(clusterX, clusterY);
+        if(localY == 0 && clusterY > 0) markHorizontal(clusterX, clusterY - 1);
+        if(localY == clusterSize - 1 && clusterY < clustersY - 1) markHorizontal(clusterX, clusterY);
+        int cornerX = localX == 0 ? clusterX - 1 : localX == clusterSize - 1 ? clusterX : -1;
+        int cornerY = localY == 0 ? clusterY - 1 : localY == clusterSize - 1 ? clusterY : -1;
+        if(cornerX >= 0 && cornerY >= 0 && cornerX < clustersX - 1 && cornerY < clustersY - 1) {
+            markCorner(cornerX, cornerY);
+        }
+    }
+
+    @Override
+    public void gridCleared() {
+        markAllDirty();
+    }
+
+    /**
+     * Getter for the amount of nodes in the abstract graph
+     * @return The amount of nodes
+     */
+    public int getNodeCount() {
+        rebuild();
+        return nodeCount - freeCount;
+    }
+
+    /**
+     * Getter for the cluster size
+     * @return The width and height of each cluster in cells
+     */
+    public int getClusterSize() {
+        return clusterSize;
+    }
+
+    /**
+     * Getter for the grid
+     * @return The grid being searched
+     */
+    public Grid getGrid() {
+        return grid;
+    }
+
+    private void markAllDirty() {
+        dirty = true;
+        Arrays.fill(dirtyVertical, true);
+        Arrays.fill(dirtyHorizontal, true);
+        Arrays.fill(dirtyCorners, true);
+        Arrays.fill(dirtyClusters, true);
+    }
+
+    private void markVertical(int clusterX, int clusterY) {
+        dirtyVertical[clusterY*(clustersX - 1) + clusterX] = true;
+        dirtyClusters[clusterY*clustersX + clusterX] = true;
+        dirtyClusters[clusterY*clustersX + clusterX + 1] = true;
+    }
+
+    private void markHorizontal(int clusterX, int clusterY) {
+        dirtyHorizontal[clusterY*clustersX + clusterX] = true;
+        dirtyClusters[clusterY*clustersX + clusterX] = true;
+        dirtyClusters[(clusterY + 1)*clustersX + clusterX] = true;
+    }
+
+    private void markCorner(int cornerX, int cornerY) {
+        dirtyCorners[cornerY*(clustersX - 1) + cornerX] = true;
+        dirtyClusters[cornerY*clustersX + cornerX] = true;
+        dirtyClusters[cornerY*clustersX + cornerX + 1] = true;
+        dirtyClusters[(cornerY + 1)*clustersX + cornerX] = true;
+        dirtyClusters[(cornerY + 1)*clustersX + cornerX + 1] = true;
+    }
+
+    /**
+     * Rescans the borders and rebuilds the clusters that changed since the last query
+     */
+    private void rebuild() {
+        if(!dirty) return;
+        PreprocessEvent event = new PreprocessEvent("hierarchy", grid);
+        event.begin();
+        for(int i = 0; i < verticalTransitions.length; i++) {
+            if(!dirtyVertical[i]) continue;
+            verticalTransitions[i] = scanBorder(i % (clustersX - 1), i / (clustersX - 1), true);
+            dirtyVertical[i] = false;
+        }
+        for(int i = 0; i < horizontalTransitions.length; i++) {
+            if(!dirtyHorizontal[i]) continue;
+            horizontalTransitions[i] = scanBorder(i % clustersX, i / clustersX, false);
+            dirtyHorizontal[i] = false;
+        }
+        for(int i = 0; i < cornerTransitions.length; i++) {
+            if(!dirtyCorners[i]) continue;
+            cornerTransitions[i] = scanCorner(i % (clustersX - 1), i / (clustersX - 1));
+            dirtyCorners[i] = false;
+        }
+        for(int cluster = 0; cluster < clusterNodes.length; cluster++) {
+            if(dirtyClusters[cluster]) updateClusterNodes(cluster);
+        }
+        ensureSearchCapacity();
+        int[] dirtyList = IntStream.range(0, clusterNodes.length).filter(cluster -> dirtyClusters[cluster]).toArray();
+        if(dirtyList.length >= PARALLEL_BUILD_CLUSTERS) {
+            IntStream.of(dirtyList).parallel().forEach(cluster -> {
+                LocalSearch search = idleSearches.poll();
+                if(search == null) search = new LocalSearch(grid, clusterSize);
+                try {
+                    buildEdges(cluster, search);
+                } finally {
+                    idleSearches.offer(search);
+                }
+            });
+        } else {
+            for(int cluster : dirtyList) {
+                buildEdges(cluster, localSearch);
+            }
+        }
+        Arrays.fill(dirtyClusters, false);
+        dirty = false;
+        event.commit();
+    }
+
+    /**
+     * Finds the crossings along the border to the right of or below a cluster
+     * Straight runs of open crossings get one crossing in the middle, or one at each end if they are long
+     * Diagonal crossings are only added where there is no straight one, so the abstract graph stays connected
+     * @return Pairs of grid indices, the first of each pair is in this cluster and the second in the next one
+     */
+    private int[] scanBorder(int clusterX, int clusterY, boolean vertical) {
+        int first = (vertical ? clusterY : clusterX)*clusterSize;
+        int last = Math.min(vertical ? grid.getHeight() : grid.getWidth(), first + clusterSize) - 1;
+        int line = ((vertical ? clusterX : clusterY) + 1)*clusterSize - 1;
+        int[] pairs = new int[8];
+        int pairCount = 0;
+        int runStart = -1;
+        for(int i = first; i <= last + 1; i++) {
+            boolean straight = i <= last && isCrossing(line, i, i, vertical);
+            if(straight && runStart == -1) runStart = i;
+            if(!straight && runStart != -1) {
+                int runEnd = i - 1;
+                if(runEnd - runStart + 1 < SPLIT_ENTRANCE_LENGTH) {
+                    int middle = (runStart + runEnd)/2;
+                    pairs = addPair(pairs, pairCount++, borderCell(line, middle, vertical), borderCell(line + 1, middle, vertical));
+                } else {
+                    pairs = addPair(pairs, pairCount++, borderCell(line, runStart, vertical), borderCell(line + 1, runStart, vertical));
+                    pairs = addPair(pairs, pairCount++, borderCell(line, runEnd, vertical), borderCell(line + 1, runEnd, vertical));
+                }
+                runStart = -1;
+            }
+        }
+        for(int i = first; i < last; i++) {
+            if(isCrossing(line, i, i, vertical) || isCrossing(line, i + 1, i + 1, vertical)) continue;
+            if(isCrossing(line, i, i + 1, vertical)) {
+                pairs = addPair(pairs, pairCount++, borderCell(line, i, vertical), borderCell(line + 1, i + 1, vertical));
+            }
+            if(isCrossing(line, i + 1, i, vertical)) {
+                pairs = addPair(pairs, pairCount++, borderCell(line, i + 1, vertical), borderCell(line + 1, i, vertical));
+            }
+        }
+        return Arrays.copyOf(pairs, pairCount*2);
+    }
+
+    /**
+     * Finds a diagonal crossing at the point where four clusters meet, only needed when both other cells are blocked
+     */
+    private int[] scanCorner(int cornerX, int cornerY) {
+        int x = (cornerX + 1)*clusterSize - 1;
+        int y = (cornerY + 1)*clusterSize - 1;
+        boolean topLeft = grid.isWalkable(x, y);
+        boolean topRight = grid.isWalkable(x + 1, y);
+        boolean bottomLeft = grid.isWalkable(x, y + 1);
+        boolean bottomRight = grid.isWalkable(x + 1, y + 1);
+        if(topLeft && bottomRight && !topRight && !bottomLeft) {
+            return new int[]{grid.index(x, y), grid.index(x + 1, y + 1)};
+        }
+        if(topRight && bottomLeft && !topLeft && !bottomRight) {
+            return new int[]{grid.index(x + 1, y), grid.index(x, y + 1)};
+        }
+        return NO_INTS;
+    }
+
+    private boolean isCrossing(int line, int from, int to, boolean vertical) {
+        return vertical
+                ? grid.isWalkable(line, from) && grid.isWalkable(line + 1, to)
+                : grid.isWalkable(from, line) && grid.isWalkable(to, line + 1);
+    }
+
+    private int borderCell(int line, int along, boolean vertical) {
+        return vertical ? grid.index(line, along) : grid.index(along, line);
+    }
+
+    private int[] addPair(int[] pairs, int pairIndex, int cell1, int cell2) {
+        if(pairIndex*2 + 2 > pairs.length) {
+            pairs = Arrays.copyOf(pairs, pairs.length*2);
+        }
+        pairs[pairIndex*2] = cell1;
+        pairs[pairIndex*2 + 1] = cell2;
+        return pairs;
+    }
+
+    /**
+     * Works out which crossing cells are nodes of a cluster, cells that were already nodes keep their ID
+     */
+    private void updateClusterNodes(int cluster) {
+        int[] cells = new int[16];
+        int cellCount = 0;
+        for(int[] pairs : getClusterTransitions(cluster)) {
+            for(int cell : pairs) {
+                if(getCluster(grid.getX(cell), grid.getY(cell)) != cluster) continue;
+                boolean duplicate = false;
+                for(int i = 0; i < cellCount && !duplicate; i++) {
+                    duplicate = cells[i] == cell;
+                }
+                if(duplicate) continue;
+                if(cellCount == cells.length) cells = Arrays.copyOf(cells, cellCount*2);
+                cells[cellCount++] = cell;
+            }
+        }
+
+        int[] oldNodes = clusterNodes[cluster];
+        int[] newNodes = new int[cellCount];
+        for(int i = 0; i < cellCount; i++) {
+            int id = -1;
+            for(int oldNode : oldNodes) {
+                if(nodeCell[oldNode] == cells[i]) {
+                    id = oldNode;
+                    break;
+                }
+            }
+            if(id == -1) id = allocateNode(cells[i], cluster);
+            nodeLocal[id] = i;
+            newNodes[i] = id;
+        }
+        for(int oldNode : oldNodes) {
+            boolean kept = false;
+            for(int newNode : newNodes) {
+                kept |= newNode == oldNode;
+            }
+            if(!kept) freeNode(oldNode);
+        }
+        clusterNodes[cluster] = newNodes;
+    }
+
+    /**
+     * Works out the distances between the nodes of a cluster and links them to the nodes across each crossing
+     * Clusters only write to the edges of their own nodes, so different clusters can be built at the same time
+     */
+    private void buildEdges(int cluster, LocalSearch search) {
+        int[] nodes = clusterNodes[cluster];
+        int[][] transitions = getClusterTransitions(cluster);
+        for(int i = 0; i < nodes.length; i++) {
+            int node = nodes[i];
+            int cell = nodeCell[node];
+            int[] targets = new int[nodes.length + 4];
+            int[] costs = new int[nodes.length + 4];
+            int edgeCount = 0;
+            searchCluster(search, cluster, cell, -1);
+            for(int j = 0; j < nodes.length; j++) {
+                if(j == i) continue;
+                int distance = search.getDistance(nodeCell[nodes[j]]);
+                if(distance == -1) continue;
+                targets[edgeCount] = nodes[j];
+                costs[edgeCount++] = distance;
+            }
+            for(int[] pairs : transitions) {
+                for(int p = 0; p < pairs.length; p += 2) {
+                    int other;
+                    if(pairs[p] == cell) {
+                        other = pairs[p + 1];
+                    } else if(pairs[p + 1] == cell) {
+                        other = pairs[p];
+                    } else {
+                        continue;
+                    }
+                    if(edgeCount == targets.length) {
+                        targets = Arrays.copyOf(targets, edgeCount*2);
+                        costs = Arrays.copyOf(costs, edgeCount*2);
+                    }
+                    targets[edgeCount] = findNode(other);
+                    costs[edgeCount++] = PathfindingEngine.getDistance(grid.getX(cell), grid.getY(cell), grid.getX(other), grid.getY(other));
+                }
+            }
+            edgeTargets[node] = Arrays.copyOf(targets, edgeCount);
+            edgeCosts[node] = Arrays.copyOf(costs, edgeCount);
+        }
+    }
+
+    /**
+     * Gets the crossings on every border and corner of a cluster
+     */
+    private int[][] getClusterTransitions(int cluster) {
+        int clusterX = cluster % clustersX;
+        int clusterY = cluster / clustersX;
+        int[][] transitions = new int[8][];
+        int count = 0;
+        if(clusterX > 0) transitions[count++] = verticalTransitions[clusterY*(clustersX - 1) + clusterX - 1];
+        if(clusterX < clustersX - 1) transitions[count++] = verticalTransitions[clusterY*(clustersX - 1) + clusterX];
+        if(clusterY > 0) transitions[count++] = horizontalTransitions[(clusterY - 1)*clustersX + clusterX];
+        if(clusterY < clustersY - 1) transitions[count++] = horizontalTransitions[clusterY*clustersX + clusterX];
+        for(int cornerY = clusterY - 1; cornerY <= clusterY; cornerY++) {
+            for(int cornerX = clusterX - 1; cornerX <= clusterX; cornerX++) {
+                if(cornerX < 0 || cornerY < 0 || cornerX >= clustersX - 1 || cornerY >= clustersY - 1) continue;
+                transitions[count++] = cornerTransitions[cornerY*(clustersX - 1) + cornerX];
+            }
+        }
+        return Arrays.copyOf(transitions, count);
+    }
+
+    private int allocateNode(int cell, int cluster) {
+        int id;
+        if(freeCount > 0) {
+            id = freeNodes[--freeCount];
+        } else {
+            if(nodeCount == nodeCell.length) {
+                int capacity = Math.max(64, nodeCount*2);
+                nodeCell = Arrays.copyOf(nodeCell, capacity);
+                nodeCluster = Arrays.copyOf(nodeCluster, capacity);
+                nodeLocal = Arrays.copyOf(nodeLocal, capacity);
+                edgeTargets = Arrays.copyOf(edgeTargets, capacity);
+                edgeCosts = Arrays.copyOf(edgeCosts, capacity);
+            }
+            id = nodeCount++;
+        }
+        nodeCell[id] = cell;
+        nodeCluster[id] = cluster;
+        edgeTargets[id] = NO_INTS;
+        edgeCosts[id] = NO_INTS;
+        return id;
+    }
+
+    private void freeNode(int id) {
+        if(freeCount == freeNodes.length) freeNodes = Arrays.copyOf(freeNodes, freeCount*2);
+        freeNodes[freeCount++] = id;
+        nodeCell[id] = -1;
+        edgeTargets[id] = NO_INTS;
+        edgeCosts[id] = NO_INTS;
+    }
+
+    /**
+     * Makes sure the abstract search arrays have room for every node and the two temporary ones
+     */
+    private void ensureSearchCapacity() {
+        int needed = nodeCount + 2;
+        if(gCost.length >= needed) return;
+        int capacity = Math.max(needed, nodeCell.length + 2);
+        gCost = new int[capacity];
+        fCost = new int[capacity];
+        parent = new int[capacity];
+        visited = new int[capacity];
+        generation = 0;
+        open = new IntHeap(this::compareNodes, capacity);
+    }
+
+    private int findNode(int cell) {
+        for(int node : clusterNodes[getCluster(grid.getX(cell), grid.getY(cell))]) {
+            if(nodeCell[node] == cell) return node;
+        }
+        return -1;
+    }
+
+    private void fillDistances(int cluster, int cell, int[] distances) {
+        searchCluster(cluster, cell, -1);
+        int[] nodes = clusterNodes[cluster];
+        for(int i = 0; i < nodes.length; i++) {
+            distances[i] = localSearch.getDistance(nodeCell[nodes[i]]);
+        }
+    }
+
+    private int searchCluster(int cluster, int source, int target) {
+        return searchCluster(localSearch, cluster, source, target);
+    }
+
+    private int searchCluster(LocalSearch search, int cluster, int source, int target) {
+        int x = (cluster % clustersX)*clusterSize;
+        int y = (cluster / clustersX)*clusterSize;
+        int width = Math.min(clusterSize, grid.getWidth() - x);
+        int height = Math.min(clusterSize, grid.getHeight() - y);
+        return search.search(x, y, width, height, source, target);
+    }
+
+    private void open(int node, int cost, int from, int goalX, int goalY, int cell) {
+        visited[node] = generation;
+        gCost[node] = cost;
+        parent[node] = from;
+        fCost[node] = cost + PathfindingEngine.getDistance(grid.getX(cell), grid.getY(cell), goalX, goalY);
+        open.put(node);
+    }
+
+    private void relax(int from, int to, int cost, int goalX, int goalY, int goal, int tempGoal) {
+        int newCost = gCost[from] + cost;
+        if(visited[to] != generation) {
+            open(to, newCost, from, goalX, goalY, to == tempGoal ? goal : nodeCell[to]);
+        } else if(newCost < gCost[to] && open.contains(to)) {
+            fCost[to] -= gCost[to] - newCost;
+            gCost[to] = newCost;
+            parent[to] = from;
+            open.decreaseKey(to);
+        }
+    }
+
+    private int[] retrace(int node, int start, int goal, int tempStart, int tempGoal) {
+        int length = 0;
+        for(int current = node; current != -1; current = parent[current]) {
+            length++;
+        }
+        int[] waypoints = new int[length];
+        for(int current = node; current != -1; current = parent[current]) {
+            waypoints[--length] = current == tempStart ? start : current == tempGoal ? goal : nodeCell[current];
+        }
+        return waypoints;
+    }
+
+    private int getCluster(int x, int y) {
+        return (y / clusterSize)*clustersX + x / clusterSize;
+    }
+
+    private int compareNodes(int node1, int node2) {
+        if(fCost[node1] != fCost[node2]) {
+            return fCost[node1] < fCost[node2] ? 1 : -1;
+        }
+        return Integer.compare(gCost[node1], gCost[node2]);
+    }
+}
@@ -0,0 +1,132 @@
+package com.relaxingleg.pathfinding.search.hierarchy;
+
+import com.relaxingleg.pathfinding.grid.Grid;
+import com.relaxingleg.pathfinding.search.PathfindingEngine;
+import com.relaxingleg.pathfinding.utils.BucketQueue;
+
+import java.util.Arrays;
+
+/**
+ * Searches inside one cluster of the grid, it never looks at cells outside the cluster
+ * Without a target it works out the distance to every cell in the cluster, with one it runs A* to it
+ * @author Matt
+ */
+class LocalSearch {
+
+    private static final int INFINITY = Integer.MAX_VALUE / 4;
+    private final Grid grid;
+    private final int maxSize;
+    private final int[] distance;
+    private final int[] priority;
+    private final int[] parent;
+    private final BucketQueue open;
+    private int originX, originY, width, height;
+
+    /**
+     * Creates a search with room for the biggest cluster
+     * @param grid The grid the clusters are part of
+     * @param maxSize The width and height of a full cluster
+     */
+    LocalSearch(Grid grid, int maxSize) {
+        this.grid = grid;
+        this.maxSize = maxSize;
+        this.distance = new int[maxSize*maxSize];
+        this.priority = new int[maxSize*maxSize];
+        this.parent = new int[maxSize*maxSize];
+        this.open = new BucketQueue(node -> priority[node], maxSize*maxSize);
+    }
+
+    /**
+     * Runs a search inside a rectangle of the grid
+     * @param x The X coordinate of the left of the rectangle
+     * @param y The Y coordinate of the top of the rectangle
+     * @param width The width of the rectangle
+     * @param height The height of the rectangle
+     * @param source The grid index of the cell to search from
+     * @param target The grid index of the cell to search to, or -1 to find the distance to every cell
+     * @return The distance to the target, or 0 if there is no target, -1 if the target can't be reached
+     */
+    int search(int x, int y, int width, int height, int source, int target) {
+        this.originX = x;
+        this.originY = y;
+        this.width = width;
+        this.height = height;
+        Arrays.fill(distance, INFINITY);
+        open.clear();
+        int targetX = target == -1 ? 0 : grid.getX(target);
+        int targetY = target == -1 ? 0 : grid.getY(target);
+        int targetLocal = target == -1 ? -1 : toLocal(target);
+
+        int sourceLocal = toLocal(source);
+        distance[sourceLocal] = 0;
+        parent[sourceLocal] = -1;
+        priority[sourceLocal] = target == -1 ? 0 : getHeuristic(source, targetX, targetY);
+        open.put(sourceLocal);
+        while(!open.isEmpty()) {
+            int current = open.pop();
+            if(current == targetLocal) return distance[current];
+            int currentX = current % maxSize;
+            int currentY = current / maxSize;
+            for(int offsetY = -1; offsetY < 2; offsetY++) {
+                for(int offsetX = -1; offsetX < 2; offsetX++) {
+                    if(offsetX == 0 && offsetY == 0) continue;
+                    int neighbourX = currentX + offsetX;
+                    int neighbourY = currentY + offsetY;
+                    if(neighbourX < 0 || neighbourY < 0 || neighbourX >= width || neighbourY >= height) continue;
+                    if(grid.isBlocked(originX + neighbourX, originY + neighbourY)) continue;
+                    int moveCost = (offsetX != 0 && offsetY != 0) ? PathfindingEngine.DIAGONAL_COST : PathfindingEngine.STRAIGHT_COST;
+                    int neighbour = neighbourY*maxSize + neighbourX;
+                    int newDistance = distance[current] + moveCost;
+                    if(newDistance >= distance[neighbour]) continue;
+                    boolean opened = distance[neighbour] < INFINITY;
+                    distance[neighbour] = newDistance;
+                    parent[neighbour] = current;
+                    priority[neighbour] = newDistance + (target == -1 ? 0 : PathfindingEngine.getDistance(
+                            originX + neighbourX, originY + neighbourY, targetX, targetY));
+                    if(opened && open.contains(neighbour)) {
+                        open.decreaseKey(neighbour);
+                    } else if(!opened) {
+                        open.put(neighbour);
+                    }
+                }
+            }
+        }
+        return target == -1 ? 0 : -1;
+    }
+
+    /**
+     * Gets the distance to a cell worked out by the last search
+     * @param cell The grid index of the cell
+     * @return The distance, -1 if it wasn't reached
+     */
+    int getDistance(int cell) {
+        int value = distance[toLocal(cell)];
+        return value >= INFINITY ? -1 : value;
+    }
+
+    /**
+     * Gets the cells from the source of the last search to a cell it reached
+     * @param cell The grid index of the cell the path should end at
+     * @return The grid indices of the path, not including the source
+     */
+    int[] getPath(int cell) {
+        int local = toLocal(cell);
+        int length = 0;
+        for(int node = local; parent[node] != -1; node = parent[node]) {
+            length++;
+        }
+        int[] cells = new int[length];
+        for(int node = local; parent[node] != -1; node = parent[node]) {
+            cells[--length] = grid.index(originX + node % maxSize, originY + node / maxSize);
+        }
+        return cells;
+    }
+
+    private int toLocal(int cell) {
+        return (grid.getY(cell) - originY)*maxSize + grid.getX(cell) - originX;
+    }
+
+    private int getHeuristic(int cell, int targetX, int targetY) {
+        return PathfindingEngine.getDistance(grid.getX(cell), grid.getY(cell), targetX, targetY);
+    }
+}
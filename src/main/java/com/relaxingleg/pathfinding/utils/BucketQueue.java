@@ -0,0 +1,309 @@
+package com.relaxingleg.pathfinding.utils;
+
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+import java.util.function.IntUnaryOperator;
+
+/**
+ * A priority queue of int values keyed on a small int, with the lowest key at the top
+ * Every key has its own bucket, so putting, moving and taking a value are O(1) instead of O(log n)
+ * It is fastest when the keys that are popped never go down, like the F costs of A* with the octile heuristic,
+ * since then the search for the next bucket only ever moves forward
+ * Values with the same key can be split by a second small int, the tie, with the lowest tie at the top. For A* the
+ * tie is the H cost, and since H is F minus G that pops the cell with the highest G cost first, the same as the heap
+ * Only the bucket of the lowest key is split by tie, its values are spread over a second ring of buckets when it
+ * reaches the top, so each value is only spread once per key it is popped at and put and pop stay O(1) amortised
+ * Values with the same key and tie, or every value with the same key if there is no tie, come out last in first out
+ * The buckets are a ring indexed by key, which grows when the gap between the lowest and highest key doesn't fit
+ * @author Matt
+ */
+public class BucketQueue implements IntQueue {
+
+    private static final int NOT_QUEUED = -2;
+    private static final int DEFAULT_BUCKETS = 256;
+    private final IntUnaryOperator keyFunction;
+    private final IntUnaryOperator tieFunction;
+    private final int[] keys;
+    private final int[] ties;
+    private final int[] next;
+    private final int[] previous;
+    private int[] heads;
+    private int mask;
+    private int lowestKey, highestKey;
+    private int size;
+    // While a key is split by tie, every value with that key is in the tie ring and its bucket in heads is empty
+    private int[] tieHeads;
+    private int tieMask;
+    private int lowestTie, highestTie;
+    private boolean splitting;
+    private int splitKey;
+    private int splitSize;
+
+    /**
+     * Creates an empty queue where values with the same key come out last in first out
+     * @param keyFunction Gets the current key of a value, it is read when the value is put in or moved
+     * @param capacity One more than the biggest value that will be put in the queue
+     */
+    public BucketQueue(IntUnaryOperator keyFunction, int capacity) {
+        this(keyFunction, null, capacity);
+    }
+
+    /**
+     * Creates an empty queue where values with the same key come out lowest tie first
+     * @param keyFunction Gets the current key of a value, it is read when the value is put in or moved
+     * @param tieFunction Gets the current tie of a value, or null to not split ties, it is read with the key
+     * @param capacity One more than the biggest value that will be put in the queue
+     */
+    public BucketQueue(IntUnaryOperator keyFunction, IntUnaryOperator tieFunction, int capacity) {
+        this.keyFunction = keyFunction;
+        this.tieFunction = tieFunction;
+        this.keys = new int[Math.max(capacity, 1)];
+        this.ties = tieFunction == null ? null : new int[Math.max(capacity, 1)];
+        this.next = new int[Math.max(capacity, 1)];
+        this.previous = new int[Math.max(capacity, 1)];
+        this.heads = new int[DEFAULT_BUCKETS];
+        this.mask = DEFAULT_BUCKETS - 1;
+        Arrays.fill(previous, NOT_QUEUED);
+        Arrays.fill(heads, -1);
+        if(tieFunction != null) {
+            this.tieHeads = new int[DEFAULT_BUCKETS];
+            this.tieMask = DEFAULT_BUCKETS - 1;
+            Arrays.fill(tieHeads, -1);
+        }
+    }
+
+    /**
+     * Gets the top value of the queue without removing it
+     * @return The value with the lowest key, and the lowest tie of those
+     */
+    public int peek() {
+        if(size == 0) throw new NoSuchElementException("Queue is empty");
+        if(!splitting) {
+            while(heads[lowestKey & mask] == -1) {
+                lowestKey++;
+            }
+            if(tieFunction == null) return heads[lowestKey & mask];
+            split(lowestKey);
+        }
+        while(tieHeads[lowestTie & tieMask] == -1) {
+            lowestTie++;
+        }
+        return tieHeads[lowestTie & tieMask];
+    }
+
+    @Override
+    public int pop() {
+        int item = peek();
+        unlink(item);
+        return item;
+    }
+
+    @Override
+    public void put(int item) {
+        if(contains(item)) throw new IllegalArgumentException("Value " + item + " is already in the queue");
+        link(item, keyFunction.applyAsInt(item));
+    }
+
+    @Override
+    public void decreaseKey(int item) {
+        update(item);
+    }
+
+    /**
+     * Moves a value to the bucket for its current key and tie, whichever way they changed
+     * @param item The value whose key or tie changed
+     */
+    public void update(int item) {
+        if(!contains(item)) throw new IllegalArgumentException("Value " + item + " is not in the queue");
+        int key = keyFunction.applyAsInt(item);
+        if(key == keys[item] && (tieFunction == null || tieFunction.applyAsInt(item) == ties[item])) return;
+        unlink(item);
+        link(item, key);
+    }
+
+    /**
+     * Takes a value out of the queue from wherever it is
+     * @param item The value to remove
+     */
+    public void remove(int item) {
+        if(!contains(item)) throw new IllegalArgumentException("Value " + item + " is not in the queue");
+        unlink(item);
+    }
+
+    @Override
+    public boolean contains(int item) {
+        return previous[item] != NOT_QUEUED;
+    }
+
+    @Override
+    public void clear() {
+        if(size > 0) {
+            for(int key = lowestKey; key <= highestKey; key++) {
+                heads[key & mask] = clearBucket(heads[key & mask]);
+            }
+            if(splitting) {
+                for(int tie = lowestTie; tie <= highestTie; tie++) {
+                    tieHeads[tie & tieMask] = clearBucket(tieHeads[tie & tieMask]);
+                }
+            }
+        }
+        splitting = false;
+        size = 0;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    private int clearBucket(int item) {
+        while(item != -1) {
+            previous[item] = NOT_QUEUED;
+            item = next[item];
+        }
+        return -1;
+    }
+
+    private void link(int item, int key) {
+        if(size == 0) {
+            lowestKey = key;
+            highestKey = key;
+        } else {
+            // A key below the one being split has to be popped first, so the split one goes back to a plain bucket
+            if(splitting && key < splitKey) unsplit();
+            int newLowest = Math.min(lowestKey, key);
+            int newHighest = Math.max(highestKey, key);
+            if(newHighest - newLowest > mask) grow(newHighest - newLowest);
+            lowestKey = newLowest;
+            highestKey = newHighest;
+        }
+        keys[item] = key;
+        if(tieFunction != null) ties[item] = tieFunction.applyAsInt(item);
+        size++;
+        if(splitting && key == splitKey) {
+            linkTie(item);
+        } else {
+            heads[key & mask] = push(heads[key & mask], item);
+        }
+    }
+
+    private void unlink(int item) {
+        int before = previous[item];
+        int after = next[item];
+        boolean split = splitting && keys[item] == splitKey;
+        if(before != -1) {
+            next[before] = after;
+        } else if(split) {
+            tieHeads[ties[item] & tieMask] = after;
+        } else {
+            heads[keys[item] & mask] = after;
+        }
+        if(after != -1) previous[after] = before;
+        previous[item] = NOT_QUEUED;
+        size--;
+        if(split && --splitSize == 0) splitting = false;
+    }
+
+    /**
+     * Puts a value at the front of a bucket
+     * @return The new head of the bucket
+     */
+    private int push(int head, int item) {
+        next[item] = head;
+        previous[item] = -1;
+        if(head != -1) previous[head] = item;
+        return item;
+    }
+
+    /**
+     * Spreads the values of a key over the tie ring, it must be the lowest key
+     */
+    private void split(int key) {
+        int item = heads[key & mask];
+        heads[key & mask] = -1;
+        splitting = true;
+        splitKey = key;
+        splitSize = 0;
+        while(item != -1) {
+            int after = next[item];
+            linkTie(item);
+            item = after;
+        }
+    }
+
+    /**
+     * Puts the values of the split key back into their plain bucket
+     */
+    private void unsplit() {
+        int head = heads[splitKey & mask];
+        for(int tie = lowestTie; tie <= highestTie; tie++) {
+            int item = tieHeads[tie & tieMask];
+            tieHeads[tie & tieMask] = -1;
+            while(item != -1) {
+                int after = next[item];
+                head = push(head, item);
+                item = after;
+            }
+        }
+        heads[splitKey & mask] = head;
+        splitting = false;
+    }
+
+    private void linkTie(int item) {
+        int tie = ties[item];
+        if(splitSize == 0) {
+            lowestTie = tie;
+            highestTie = tie;
+        } else {
+            int newLowest = Math.min(lowestTie, tie);
+            int newHighest = Math.max(highestTie, tie);
+            if(newHighest - newLowest > tieMask) growTies(newHighest - newLowest);
+            lowestTie = newLowest;
+            highestTie = newHighest;
+        }
+        tieHeads[tie & tieMask] = push(tieHeads[tie & tieMask], item);
+        splitSize++;
+    }
+
+    /**
+     * Makes the ring big enough to hold a range of keys, keeping the order of every bucket
+     */
+    private void grow(int range) {
+        int bucketCount = getBucketCount(heads.length, range);
+        int[] newHeads = new int[bucketCount];
+        Arrays.fill(newHeads, -1);
+        int newMask = bucketCount - 1;
+        for(int key = lowestKey; key <= highestKey; key++) {
+            newHeads[key & newMask] = heads[key & mask];
+        }
+        heads = newHeads;
+        mask = newMask;
+    }
+
+    /**
+     * The same as grow but for the tie ring
+     */
+    private void growTies(int range) {
+        int bucketCount = getBucketCount(tieHeads.length, range);
+        int[] newHeads = new int[bucketCount];
+        Arrays.fill(newHeads, -1);
+        int newMask = bucketCount - 1;
+        for(int tie = lowestTie; tie <= highestTie; tie++) {
+            newHeads[tie & newMask] = tieHeads[tie & tieMask];
+        }
+        tieHeads = newHeads;
+        tieMask = newMask;
+    }
+
+    private static int getBucketCount(int bucketCount, int range) {
+        while(bucketCount - 1 < range) {
+            bucketCount *= 2;
+        }
+        return bucketCount;
+    }
+}
@@ -0,0 +1,102 @@
+package com.relaxingleg.pathfinding.utils;
+
+import java.util.Arrays;
+
+/**
+ * Counts how often values of each size are seen, so percentiles can be read back without keeping every value
+ * Values under 32 get a bucket each, and every power of two above that is split into 32 buckets, so any value is
+ * within about 3% of the bucket it lands in
+ * It takes the same fixed amount of memory however many values are recorded and never allocates after it is made
+ * It isn't thread safe, anything recording from several threads has to lock around it
+ * @author Matt
+ */
+public class Histogram {
+
+    private static final int SUB_BUCKET_BITS = 5;
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+    private final long[] counts = new long[(Long.SIZE - SUB_BUCKET_BITS)*SUB_BUCKETS];
+    private long count;
+    private long total;
+    private long max;
+
+    /**
+     * Adds a value
+     * @param value The value, anything below 0 is counted as 0
+     */
+    public void record(long value) {
+        if(value < 0) value = 0;
+        counts[getBucket(value)]++;
+        count++;
+        total += value;
+        if(value > max) max = value;
+    }
+
+    /**
+     * Gets the value that a percentage of the recorded values are less than or equal to
+     * It is the top of the bucket the value is in, but never more than the biggest value recorded
+     * @param percentile The percentage, from 0 to 100
+     * @return The value, 0 if nothing has been recorded
+     */
+    public long getPercentile(double percentile) {
+        if(percentile < 0 || percentile > 100) {
+            throw new IllegalArgumentException("Percentile must be between 0 and 100, got " + percentile);
+        }
+        if(count == 0) return 0;
+        long target = Math.max(1, (long)Math.ceil(count*percentile/100));
+        long seen = 0;
+        for(int bucket = 0; bucket < counts.length; bucket++) {
+            seen += counts[bucket];
+            if(seen >= target) return Math.min(getBucketTop(bucket), max);
+        }
+        return max;
+    }
+
+    /**
+     * Gets the mean of the recorded values
+     * @return The mean, 0 if nothing has been recorded
+     */
+    public double getMean() {
+        return count == 0 ? 0 : (double)total/count;
+    }
+
+    /**
+     * Getter for the biggest value recorded
+     * @return The biggest value, 0 if nothing has been recorded
+     */
+    public long getMax() {
+        return max;
+    }
+
+    /**
+     * Getter for the amount of values recorded
+     * @return The amount of values
+     */
+    public long getCount() {
+        return count;
+    }
+
+    /**
+     * Forgets every value recorded
+     */
+    public void reset() {
+        Arrays.fill(counts, 0);
+        count = 0;
+        total = 0;
+        max = 0;
+    }
+
+    private static int getBucket(long value) {
+        if(value < SUB_BUCKETS) return (int)value;
+        // The top 6 bits of the value pick the bucket, the 1 at the top and 5 more to split the power of two
+        int shift = Long.SIZE - SUB_BUCKET_BITS - 1 - Long.numberOfLeadingZeros(value);
+        return (shift + 1)*SUB_BUCKETS + (int)(value >>> shift) - SUB_BUCKETS;
+    }
+
+    private static long getBucketTop(int bucket) {
+        if(bucket < SUB_BUCKETS) return bucket;
+        int shift = bucket/SUB_BUCKETS - 1;
+        long top = (long)(bucket % SUB_BUCKETS + SUB_BUCKETS + 1) << shift;
+        // The very last bucket goes past the biggest long
+        return top < 0 ? Long.MAX_VALUE : top - 1;
+    }
+}
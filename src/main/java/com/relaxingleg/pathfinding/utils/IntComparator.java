@@ -0,0 +1,17 @@
+package com.relaxingleg.pathfinding.utils;
+
+/**
+ * Compares two int values without boxing them, used by an int heap
+ * @author Matt
+ */
+@FunctionalInterface
+public interface IntComparator {
+
+    /**
+     * Compares two values
+     * @param a The first value
+     * @param b The second value
+     * @return Positive if a should be nearer the top of the heap, 0 if they are equal, negative if b should be
+     */
+    int compare(int a, int b);
+}
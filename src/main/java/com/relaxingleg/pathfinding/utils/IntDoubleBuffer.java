@@ -0,0 +1,110 @@
+package com.relaxingleg.pathfinding.utils;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Passes batches of int values from one writer thread to one reader thread without either of them ever waiting
+ * The writer fills one batch while the reader has the other, and they only swap once the reader has handed its batch back
+ * Until then the writer keeps adding to the batch it has, so nothing is ever dropped
+ * A published batch is never touched by the writer again until the reader releases it
+ * @author Matt
+ */
+public class IntDoubleBuffer {
+
+    private final AtomicReference<Batch> published = new AtomicReference<>();
+    private final AtomicReference<Batch> free = new AtomicReference<>();
+    private Batch back;
+
+    /**
+     * Creates an empty buffer
+     * @param capacity How many values each batch has room for before it has to grow
+     */
+    public IntDoubleBuffer(int capacity) {
+        back = new Batch(capacity);
+        free.set(new Batch(capacity));
+    }
+
+    /**
+     * Adds a value to the batch being written, should only be called by the writer
+     * @param value The value to add
+     */
+    public void add(int value) {
+        back.add(value);
+    }
+
+    /**
+     * Hands the batch being written over to the reader, should only be called by the writer
+     * @return If the batch was handed over, false if there was nothing to send or the reader still has the other batch
+     */
+    public boolean publish() {
+        if(back.size == 0 || published.get() != null) return false;
+        Batch next = free.getAndSet(null);
+        if(next == null) return false;
+        published.set(back);
+        back = next;
+        return true;
+    }
+
+    /**
+     * Checks if the writer has values that haven't been handed over yet, should only be called by the writer
+     * @return If there are values waiting to be published
+     */
+    public boolean hasPending() {
+        return back.size > 0;
+    }
+
+    /**
+     * Takes the last published batch, should only be called by the reader
+     * @return The batch, or null if nothing new was published
+     */
+    public Batch acquire() {
+        return published.getAndSet(null);
+    }
+
+    /**
+     * Gives a batch back once it has been read, so the writer can fill it again, should only be called by the reader
+     * @param batch The batch that was acquired
+     */
+    public void release(Batch batch) {
+        batch.size = 0;
+        free.set(batch);
+    }
+
+    /**
+     * A batch of values, it doesn't change while the reader has it
+     */
+    public static class Batch {
+
+        private int[] values;
+        private int size;
+
+        private Batch(int capacity) {
+            this.values = new int[Math.max(capacity, 1)];
+        }
+
+        private void add(int value) {
+            if(size == values.length) {
+                values = Arrays.copyOf(values, size*2);
+            }
+            values[size++] = value;
+        }
+
+        /**
+         * Gets the amount of values in the batch
+         * @return The amount of values
+         */
+        public int size() {
+            return size;
+        }
+
+        /**
+         * Gets a value in the batch
+         * @param i The position of the value, in the order they were added
+         * @return The value
+         */
+        public int get(int i) {
+            return values[i];
+        }
+    }
+}
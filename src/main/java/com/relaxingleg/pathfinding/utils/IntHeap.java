@@ -0,0 +1,175 @@
+package com.relaxingleg.pathfinding.utils;
+
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+
+/**
+ * A heap of int values in the range 0 to capacity-1, such as cell indices
+ * It keeps the position of every value in an array so values can be found and moved without any objects
+ * @author Matt
+ */
+public class IntHeap implements IntQueue {
+
+    private final IntComparator comparator;
+    private int[] items;
+    private int[] positions;
+    private int size;
+
+    /**
+     * Creates an empty heap
+     * @param comparator How to compare, a positive result means the first value should be nearer the top
+     * @param capacity One more than the biggest value that will be put in the heap
+     */
+    public IntHeap(IntComparator comparator, int capacity) {
+        this.comparator = comparator;
+        this.items = new int[Math.max(capacity, 1)];
+        this.positions = new int[Math.max(capacity, 1)];
+        Arrays.fill(positions, -1);
+    }
+
+    /**
+     * Gets the top value of the heap without removing it
+     * @return The top value of the heap
+     */
+    public int peek() {
+        if(size == 0) throw new NoSuchElementException("Heap is empty");
+        return items[0];
+    }
+
+    /**
+     * Gets the top value of the heap and removes it
+     * @return The top value of the heap
+     */
+    @Override
+    public int pop() {
+        if(size == 0) throw new NoSuchElementException("Heap is empty");
+        int item = items[0];
+        positions[item] = -1;
+        size--;
+        if(size > 0) {
+            place(items[size], 0);
+            swapDown(0);
+        }
+        return item;
+    }
+
+    /**
+     * Puts a value into the heap
+     * @param item The value to put in the heap
+     */
+    @Override
+    public void put(int item) {
+        place(item, size);
+        size++;
+        swapUp(size-1);
+    }
+
+    /**
+     * Moves a value up the heap after its key was lowered
+     * @param item The value that now belongs nearer the top
+     */
+    @Override
+    public void decreaseKey(int item) {
+        if(!contains(item)) throw new IllegalArgumentException("Value " + item + " is not in the heap");
+        swapUp(positions[item]);
+    }
+
+    /**
+     * Moves a value up or down the heap after its key changed in either direction
+     * @param item The value whose key changed
+     */
+    public void update(int item) {
+        if(!contains(item)) throw new IllegalArgumentException("Value " + item + " is not in the heap");
+        int position = positions[item];
+        swapUp(position);
+        if(positions[item] == position) swapDown(position);
+    }
+
+    /**
+     * Takes a value out of the heap from wherever it is
+     * @param item The value to remove
+     */
+    public void remove(int item) {
+        if(!contains(item)) throw new IllegalArgumentException("Value " + item + " is not in the heap");
+        int position = positions[item];
+        positions[item] = -1;
+        size--;
+        if(position == size) return;
+        int movedItem = items[size];
+        place(movedItem, position);
+        swapUp(position);
+        if(positions[movedItem] == position) swapDown(position);
+    }
+
+    /**
+     * Checks if a value is in the heap
+     * @param item The value to check
+     * @return If the value is in the heap
+     */
+    @Override
+    public boolean contains(int item) {
+        return positions[item] >= 0;
+    }
+
+    /**
+     * Clears the heap
+     */
+    @Override
+    public void clear() {
+        for(int i = 0; i < size; i++) {
+            positions[items[i]] = -1;
+        }
+        size = 0;
+    }
+
+    /**
+     * Gets the size of the heap
+     * @return The size of the heap
+     */
+    @Override
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Checks if the heap is empty
+     * @return If the heap is empty
+     */
+    @Override
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    private void swapUp(int position) {
+        int item = items[position];
+        while(position > 0) {
+            int parentPosition = (position-1)/2;
+            int parentItem = items[parentPosition];
+            if(comparator.compare(item, parentItem) <= 0) break;
+            place(parentItem, position);
+            position = parentPosition;
+        }
+        place(item, position);
+    }
+
+    private void swapDown(int position) {
+        int item = items[position];
+        while(true) {
+            int childPosition = 2*position+1;
+            if(childPosition >= size) break;
+            if(childPosition+1 < size && comparator.compare(items[childPosition+1], items[childPosition]) > 0) {
+                childPosition++;
+            }
+            int child = items[childPosition];
+            if(comparator.compare(child, item) <= 0) break;
+            place(child, position);
+            position = childPosition;
+        }
+        place(item, position);
+    }
+
+    private void place(int item, int position) {
+        items[position] = item;
+        positions[item] = position;
+    }
+}
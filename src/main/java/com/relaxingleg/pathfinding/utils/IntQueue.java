@@ -0,0 +1,51 @@
+package com.relaxingleg.pathfinding.utils;
+
+/**
+ * A priority queue of int values in the range 0 to capacity-1, such as cell indices
+ * The values are ordered by something outside the queue, so the queue has to be told when that changes
+ * @author Matt
+ */
+public interface IntQueue {
+
+    /**
+     * Gets the top value of the queue and removes it
+     * @return The top value of the queue
+     */
+    int pop();
+
+    /**
+     * Puts a value into the queue
+     * @param item The value to put in the queue
+     */
+    void put(int item);
+
+    /**
+     * Moves a value towards the top of the queue after its key was lowered
+     * @param item The value that now belongs nearer the top
+     */
+    void decreaseKey(int item);
+
+    /**
+     * Checks if a value is in the queue
+     * @param item The value to check
+     * @return If the value is in the queue
+     */
+    boolean contains(int item);
+
+    /**
+     * Clears the queue
+     */
+    void clear();
+
+    /**
+     * Gets the size of the queue
+     * @return The size of the queue
+     */
+    int size();
+
+    /**
+     * Checks if the queue is empty
+     * @return If the queue is empty
+     */
+    boolean isEmpty();
+}
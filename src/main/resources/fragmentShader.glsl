@@ -1,10 +1,10 @@
 #version 330
 
 in vec2 uvCoords;
+in vec3 passColour;
 
 out vec4 colour;
 
-uniform vec3 passColour;
 uniform int border;
 
 const vec3 borderColour = vec3(0);
@@ -0,0 +1,24 @@
+#version 330
+
+in vec2 gridCoords;
+
+out vec4 colour;
+
+uniform usampler2D cells;
+uniform vec3 palette[16];
+uniform int gridSize;
+uniform int border;
+
+const vec3 borderColour = vec3(0);
+const float borderWidth = 0.03;
+
+void main() {
+    vec2 position = gridCoords*gridSize;
+    ivec2 cell = min(ivec2(position), ivec2(gridSize-1));
+    vec2 uvCoords = fract(position);
+    if(border == 1 && (uvCoords.x <= borderWidth || uvCoords.x >= 1-borderWidth || uvCoords.y <= borderWidth || uvCoords.y >= 1-borderWidth)) {
+        colour = vec4(borderColour, 1);
+    } else {
+        colour = vec4(palette[texelFetch(cells, cell, 0).r], 1);
+    }
+}
@@ -0,0 +1,12 @@
+#version 330
+
+in vec2 position;
+
+out vec2 gridCoords;
+
+uniform float margin;
+
+void main() {
+    gl_Position = vec4(position.x*(1-margin*2), position.y, 0, 1);
+    gridCoords = vec2((position.x+1)/2, 1-((position.y+1)/2));
+}
@@ -1,12 +1,18 @@
 #version 330
 
 in vec2 position;
+in vec2 cell;
+in vec3 colour;
 
 out vec2 uvCoords;
+out vec3 passColour;
 
-uniform mat4 transformationMatrix;
+uniform vec2 cellSize;
+uniform float margin;
 
 void main() {
-    gl_Position = transformationMatrix * vec4(position, 0, 1);
+    vec2 centre = vec2(-1 + margin*2 + cellSize.x*(cell.x*2+1), 1 - cellSize.y*(cell.y*2+1));
+    gl_Position = vec4(centre + position*cellSize, 0, 1);
     uvCoords = vec2((position.x+1)/2, 1-((position.y+1)/2));
+    passColour = colour;
 }
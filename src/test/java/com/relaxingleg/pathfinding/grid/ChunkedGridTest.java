@@ -0,0 +1,56 @@
+package com.relaxingleg.pathfinding.grid;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Checks that a materialised window matches the world, and that a wide window reads each paged out tile only once
+ * @author Matt
+ */
+class ChunkedGridTest {
+
+    @TempDir
+    Path pageDirectory;
+
+    @Test
+    void materialiseMatchesTheWorld() throws IOException {
+        try(ChunkedGrid world = new ChunkedGrid(3, pageDirectory)) {
+            Random random = new Random(7);
+            for(int i = 0; i < 4000; i++) {
+                world.setBlocked(random.nextInt(300) - 100, random.nextInt(200) - 50, true);
+            }
+            world.fill(20, 10, 128, 64, true);
+
+            // Not on the edge of a tile, and wider than the tiles that fit in memory
+            int x = -37, y = -21, width = 250, height = 170;
+            Grid grid = world.materialise(x, y, width, height);
+            for(int gridY = 0; gridY < height; gridY++) {
+                for(int gridX = 0; gridX < width; gridX++) {
+                    assertEquals(world.isBlocked(x + gridX, y + gridY), !grid.isWalkable(gridX, gridY),
+                            "Cell (" + gridX + ", " + gridY + ")");
+                }
+            }
+        }
+    }
+
+    @Test
+    void wideWindowReadsEachTileOnce() throws IOException {
+        int tilesWide = 8;
+        try(ChunkedGrid world = new ChunkedGrid(2, pageDirectory)) {
+            for(int tileX = 0; tileX < tilesWide; tileX++) {
+                world.setBlocked(tileX*ChunkedGrid.TILE_SIZE + 1, 1, true);
+            }
+            long reads = world.getPageReads();
+
+            world.materialise(0, 0, tilesWide*ChunkedGrid.TILE_SIZE, ChunkedGrid.TILE_SIZE);
+
+            assertEquals(tilesWide, world.getPageReads() - reads);
+        }
+    }
+}
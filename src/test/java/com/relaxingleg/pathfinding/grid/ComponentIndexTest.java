@@ -0,0 +1,136 @@
+package com.relaxingleg.pathfinding.grid;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Checks the components against labelling every cell with a breadth first search, after building and after random
+ * cells are blocked and unblocked one at a time
+ * The grids are small so the splits happen often and the labels run out, which labels everything again from scratch
+ * @author Matt
+ */
+class ComponentIndexTest {
+
+    @Test
+    void buildMatchesSearch() {
+        // Taller than a band of rows, so the bands have to be joined
+        Grid grid = createGrid(45, 150, 0.4, new Random(1));
+        ComponentIndex index = new ComponentIndex(grid);
+
+        assertMatchesSearch(grid, index, "after building");
+    }
+
+    @Test
+    void randomChangesMatchSearch() {
+        Random random = new Random(2);
+        Grid grid = createGrid(24, 20, 0.35, random);
+        ComponentIndex index = new ComponentIndex(grid);
+        for(int change = 0; change < 20_000; change++) {
+            int x = random.nextInt(grid.getWidth()), y = random.nextInt(grid.getHeight());
+            int choice = random.nextInt(1000);
+            if(choice == 0) {
+                grid.clear();
+            } else if(choice < 400) {
+                grid.setBlocked(x, y, true);
+            } else if(choice < 700) {
+                grid.setBlocked(x, y, false);
+            } else {
+                grid.toggle(x, y);
+            }
+            if(change % 10 == 0) assertMatchesSearch(grid, index, "after change " + change);
+        }
+    }
+
+    @Test
+    void splittingIntoManyPiecesMatchesSearch() {
+        // Blocking every cell of a row then a column cuts the grid into pieces, each block can split off a corner
+        Random random = new Random(3);
+        Grid grid = new Grid(30, 30);
+        ComponentIndex index = new ComponentIndex(grid);
+        for(int round = 0; round < 40; round++) {
+            int line = random.nextInt(30);
+            boolean vertical = random.nextBoolean();
+            for(int i = 0; i < 30; i++) {
+                if(vertical) {
+                    grid.setBlocked(line, i, true);
+                } else {
+                    grid.setBlocked(i, line, true);
+                }
+                assertMatchesSearch(grid, index, "round " + round + " cell " + i);
+            }
+            for(int i = 0; i < 30; i++) {
+                grid.setBlocked(random.nextInt(30), random.nextInt(30), false);
+            }
+            assertMatchesSearch(grid, index, "after unblocking in round " + round);
+        }
+    }
+
+    /**
+     * Two cells should have the same component if and only if the search gave them the same label
+     */
+    private static void assertMatchesSearch(Grid grid, ComponentIndex index, String when) {
+        int[] expected = labelWithSearch(grid);
+        int[] componentOfLabel = new int[grid.getCellCount()];
+        Arrays.fill(componentOfLabel, Integer.MIN_VALUE);
+        int[] labelOfComponent = new int[grid.getCellCount()*2 + 16];
+        Arrays.fill(labelOfComponent, Integer.MIN_VALUE);
+        for(int cell = 0; cell < grid.getCellCount(); cell++) {
+            int component = index.getComponent(cell);
+            String message = "Cell " + cell + " " + when;
+            if(expected[cell] == -1) {
+                assertEquals(-1, component, message);
+                continue;
+            }
+            if(componentOfLabel[expected[cell]] == Integer.MIN_VALUE) componentOfLabel[expected[cell]] = component;
+            assertEquals(componentOfLabel[expected[cell]], component, message + " should be with the rest of its component");
+            if(labelOfComponent[component] == Integer.MIN_VALUE) labelOfComponent[component] = expected[cell];
+            assertEquals(labelOfComponent[component], expected[cell], message + " shouldn't share a component with another one");
+        }
+    }
+
+    private static int[] labelWithSearch(Grid grid) {
+        int[] labels = new int[grid.getCellCount()];
+        Arrays.fill(labels, -2);
+        int[] queue = new int[grid.getCellCount()];
+        int labelCount = 0;
+        for(int cell = 0; cell < labels.length; cell++) {
+            if(labels[cell] != -2) continue;
+            if(grid.isBlocked(grid.getX(cell), grid.getY(cell))) {
+                labels[cell] = -1;
+                continue;
+            }
+            int label = labelCount++;
+            int head = 0, tail = 0;
+            labels[cell] = label;
+            queue[tail++] = cell;
+            while(head < tail) {
+                int current = queue[head++];
+                int x = grid.getX(current), y = grid.getY(current);
+                for(int dy = -1; dy < 2; dy++) {
+                    for(int dx = -1; dx < 2; dx++) {
+                        if(!grid.isWalkable(x + dx, y + dy)) continue;
+                        int neighbour = grid.index(x + dx, y + dy);
+                        if(labels[neighbour] != -2) continue;
+                        labels[neighbour] = label;
+                        queue[tail++] = neighbour;
+                    }
+                }
+            }
+        }
+        return labels;
+    }
+
+    private static Grid createGrid(int width, int height, double density, Random random) {
+        Grid grid = new Grid(width, height);
+        for(int y = 0; y < height; y++) {
+            for(int x = 0; x < width; x++) {
+                if(random.nextDouble() < density) grid.setBlocked(x, y, true);
+            }
+        }
+        return grid;
+    }
+}
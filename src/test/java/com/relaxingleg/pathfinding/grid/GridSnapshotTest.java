@@ -0,0 +1,178 @@
+package com.relaxingleg.pathfinding.grid;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.ReadableByteChannel;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Checks that snapshots read back the same as they were written, and that damaged ones are turned down
+ * @author Matt
+ */
+class GridSnapshotTest {
+
+    private static final int[] WIDTHS = {1, 5, 63, 64, 65, 130};
+
+    @Test
+    void rowsThatStartAndEndBlockedRoundTrip() throws IOException {
+        for(int width : WIDTHS) {
+            Grid grid = new Grid(width, 6);
+            // All walkable, all blocked, blocked at both ends, blocked only at the start, blocked only at the end
+            for(int x = 0; x < width; x++) {
+                grid.setBlocked(x, 1, true);
+            }
+            grid.setBlocked(0, 2, true);
+            grid.setBlocked(width - 1, 2, true);
+            grid.setBlocked(0, 3, true);
+            grid.setBlocked(width - 1, 4, true);
+            for(int x = 0; x < width; x += 2) {
+                grid.setBlocked(x, 5, true);
+            }
+
+            assertSameGrid(grid, roundTrip(new GridSnapshot(grid), 7).grid());
+        }
+    }
+
+    @Test
+    void bigRandomGridWithCostLayersRoundTrips() throws IOException {
+        // Big enough that the body doesn't fit in one buffer
+        Random random = new Random(4);
+        Grid grid = new Grid(517, 400);
+        for(int y = 0; y < grid.getHeight(); y++) {
+            for(int x = 0; x < grid.getWidth(); x++) {
+                if(random.nextDouble() < 0.3) grid.setBlocked(x, y, true);
+            }
+        }
+        int[] costs = new int[grid.getCellCount()];
+        for(int i = 0; i < costs.length; i++) {
+            costs[i] = random.nextInt(8) == 0 ? random.nextInt() : 3;
+        }
+
+        GridSnapshot read = roundTrip(new GridSnapshot(grid, List.of(costs)), 4096);
+        assertSameGrid(grid, read.grid());
+        assertArrayEquals(costs, read.costLayers().get(0));
+    }
+
+    @Test
+    void negativeCostsRoundTrip() throws IOException {
+        Grid grid = new Grid(7, 3);
+        int[] costs = {-1, -1, Integer.MIN_VALUE, Integer.MAX_VALUE, 0, -128, 127,
+                -300, 300, 300, -2, 1 << 28, -(1 << 28), 5,
+                -7, -7, -7, -7, -7, -7, -7};
+        int[] flat = new int[costs.length];
+        Arrays.fill(flat, -9);
+
+        GridSnapshot read = roundTrip(new GridSnapshot(grid, List.of(costs, flat)), 1);
+        assertEquals(2, read.costLayers().size());
+        assertArrayEquals(costs, read.costLayers().get(0));
+        assertArrayEquals(flat, read.costLayers().get(1));
+    }
+
+    @Test
+    void flippedCostByteIsCorrupt() throws IOException {
+        Grid grid = new Grid(10, 1);
+        int[] costs = new int[10];
+        Arrays.fill(costs, 100);
+        byte[] bytes = write(new GridSnapshot(grid, List.of(costs)));
+        // The body is the obstacle run, the cost run length, then the cost and the 4 byte checksum
+        bytes[bytes.length - 5] ^= 1;
+
+        IOException exception = assertThrows(IOException.class, () -> read(bytes, bytes.length));
+        assertTrue(exception.getMessage().endsWith("corrupt"), exception.getMessage());
+    }
+
+    @Test
+    void everyFlippedByteIsTurnedDown() throws IOException {
+        Random random = new Random(6);
+        Grid grid = new Grid(70, 9);
+        int[] costs = new int[grid.getCellCount()];
+        for(int y = 0; y < grid.getHeight(); y++) {
+            for(int x = 0; x < grid.getWidth(); x++) {
+                if(random.nextInt(4) == 0) grid.setBlocked(x, y, true);
+                costs[grid.index(x, y)] = random.nextInt(3) - 1;
+            }
+        }
+        byte[] bytes = write(new GridSnapshot(grid, List.of(costs)));
+        for(int i = 0; i < bytes.length; i++) {
+            for(int bit = 0; bit < 8; bit++) {
+                byte[] damaged = bytes.clone();
+                damaged[i] ^= (byte)(1 << bit);
+                assertThrows(IOException.class, () -> read(damaged, damaged.length), "Byte " + i + " bit " + bit);
+            }
+        }
+    }
+
+    @Test
+    void truncatedSnapshotEndsEarly() throws IOException {
+        Grid grid = new Grid(20, 20);
+        grid.setBlocked(3, 4, true);
+        byte[] bytes = write(new GridSnapshot(grid));
+        for(int length = 0; length < bytes.length; length++) {
+            byte[] truncated = Arrays.copyOf(bytes, length);
+            assertThrows(EOFException.class, () -> read(truncated, 16), "Length " + length);
+        }
+    }
+
+    private static GridSnapshot roundTrip(GridSnapshot snapshot, int readSize) throws IOException {
+        return read(write(snapshot), readSize);
+    }
+
+    private static byte[] write(GridSnapshot snapshot) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        snapshot.write(Channels.newChannel(out));
+        return out.toByteArray();
+    }
+
+    /**
+     * Reads from a channel that hands over at most readSize bytes at a time, like a slow socket
+     */
+    private static GridSnapshot read(byte[] bytes, int readSize) throws IOException {
+        ReadableByteChannel in = Channels.newChannel(new ByteArrayInputStream(bytes));
+        return GridSnapshot.read(new ReadableByteChannel() {
+            @Override
+            public int read(ByteBuffer destination) throws IOException {
+                ByteBuffer limited = destination.slice();
+                limited.limit(Math.min(limited.remaining(), readSize));
+                int read = in.read(limited);
+                if(read > 0) destination.position(destination.position() + read);
+                return read;
+            }
+
+            @Override
+            public boolean isOpen() {
+                return in.isOpen();
+            }
+
+            @Override
+            public void close() throws IOException {
+                in.close();
+            }
+        });
+    }
+
+    private static void assertSameGrid(Grid expected, Grid actual) {
+        assertEquals(expected.getWidth(), actual.getWidth());
+        assertEquals(expected.getHeight(), actual.getHeight());
+        for(int y = 0; y < expected.getHeight(); y++) {
+            for(int x = 0; x < expected.getWidth(); x++) {
+                assertEquals(expected.isBlocked(x, y), actual.isBlocked(x, y), expected.getWidth() + " wide, cell (" + x + ", " + y + ")");
+            }
+            for(int word = 0; word < expected.getObstacles().getWordsPerRow(); word++) {
+                assertEquals(expected.getObstacles().getWord(y, word), actual.getObstacles().getWord(y, word), "Row " + y + " word " + word);
+            }
+        }
+    }
+}
@@ -0,0 +1,107 @@
+package com.relaxingleg.pathfinding.render;
+
+import org.joml.Vector3f;
+import org.junit.jupiter.api.Test;
+
+import java.nio.FloatBuffer;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Checks how instances are packed and how the dirty range follows the changes, without a window
+ * @author Matt
+ */
+class InstanceBufferTest {
+
+    private static final Vector3f RED = new Vector3f(1, 0, 0);
+    private static final Vector3f GREEN = new Vector3f(0, 0.75f, 0);
+
+    @Test
+    void packsPositionThenColour() {
+        InstanceBuffer buffer = new InstanceBuffer(4);
+        buffer.set(2, 7, 3, GREEN);
+
+        assertEquals(3, buffer.getInstanceCount());
+        assertEquals(7, buffer.get(2, 0));
+        assertEquals(3, buffer.get(2, 1));
+        assertEquals(0, buffer.get(2, 2));
+        assertEquals(0.75f, buffer.get(2, 3));
+        assertEquals(0, buffer.get(2, 4));
+        FloatBuffer data = buffer.getBuffer();
+        assertEquals(0, data.position());
+        assertEquals(3*InstanceBuffer.FLOATS_PER_INSTANCE, data.limit());
+        assertEquals(7, data.get(2*InstanceBuffer.FLOATS_PER_INSTANCE));
+    }
+
+    @Test
+    void setColourOnlyChangesTheColour() {
+        InstanceBuffer buffer = new InstanceBuffer(4);
+        buffer.set(1, 5, 6, GREEN);
+        buffer.setColour(1, RED);
+
+        assertEquals(5, buffer.get(1, 0));
+        assertEquals(6, buffer.get(1, 1));
+        assertEquals(1, buffer.get(1, 2));
+        assertEquals(0, buffer.get(1, 3));
+        assertEquals(0, buffer.get(1, 4));
+        assertThrows(IndexOutOfBoundsException.class, () -> buffer.setColour(2, RED));
+        assertThrows(IndexOutOfBoundsException.class, () -> buffer.set(4, 0, 0, RED));
+    }
+
+    @Test
+    void writingTheSameValuesIsNotAChange() {
+        InstanceBuffer buffer = new InstanceBuffer(4);
+        buffer.set(0, 1, 2, GREEN);
+        buffer.clearDirty();
+
+        buffer.set(0, 1, 2, new Vector3f(GREEN));
+        buffer.setColour(0, GREEN);
+        assertFalse(buffer.isDirty());
+        assertEquals(0, buffer.getDirtyBuffer().remaining());
+
+        buffer.setColour(0, RED);
+        assertTrue(buffer.isDirty());
+    }
+
+    @Test
+    void dirtyRangeCoversEveryChangeUntilCleared() {
+        InstanceBuffer buffer = new InstanceBuffer(10);
+        assertFalse(buffer.isDirty());
+        for(int i = 0; i < 10; i++) {
+            buffer.set(i, i, 0, GREEN);
+        }
+        buffer.clearDirty();
+
+        buffer.setColour(6, RED);
+        assertEquals(6, buffer.getDirtyStart());
+        assertEquals(7, buffer.getDirtyEnd());
+        buffer.setColour(3, RED);
+        buffer.set(4, 4, 0, RED);
+        assertEquals(3, buffer.getDirtyStart());
+        assertEquals(7, buffer.getDirtyEnd());
+
+        FloatBuffer dirty = buffer.getDirtyBuffer();
+        assertEquals(4*InstanceBuffer.FLOATS_PER_INSTANCE, dirty.remaining());
+        assertEquals(3, dirty.get(0));
+        assertEquals(1, dirty.get(2));
+
+        buffer.clearDirty();
+        assertFalse(buffer.isDirty());
+        assertEquals(0, buffer.getDirtyBuffer().remaining());
+    }
+
+    @Test
+    void clearRemovesEveryInstance() {
+        InstanceBuffer buffer = new InstanceBuffer(4);
+        buffer.set(3, 1, 1, RED);
+        buffer.clear();
+
+        assertEquals(0, buffer.getInstanceCount());
+        assertFalse(buffer.isDirty());
+        assertEquals(0, buffer.getBuffer().remaining());
+        assertThrows(IndexOutOfBoundsException.class, () -> buffer.setColour(0, RED));
+    }
+}
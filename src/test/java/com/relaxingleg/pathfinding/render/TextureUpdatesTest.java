@@ -0,0 +1,98 @@
+package com.relaxingleg.pathfinding.render;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Checks how changed texels are grouped into row spans and when the whole texture is sent instead, without a window
+ * @author Matt
+ */
+class TextureUpdatesTest {
+
+    private static final int SIZE = 10;
+
+    @Test
+    void firstUploadIsTheWholeTexture() {
+        TextureUpdates updates = new TextureUpdates(SIZE, SIZE);
+        assertTrue(updates.isFull());
+        updates.clear();
+        assertFalse(updates.isFull());
+        assertEquals(0, updates.getRowCount());
+    }
+
+    @Test
+    void changesInARowBecomeOneSpan() {
+        TextureUpdates updates = cleared();
+        updates.set(6, 3, (byte)1);
+        updates.set(2, 3, (byte)1);
+        updates.set(4, 3, (byte)1);
+        updates.set(5, 8, (byte)2);
+
+        assertFalse(updates.isFull());
+        assertEquals(2, updates.getRowCount());
+        assertEquals(3, updates.getRow(0));
+        assertEquals(8, updates.getRow(1));
+        assertEquals(2, updates.getRowStart(3));
+        assertEquals(7, updates.getRowEnd(3));
+        assertEquals(5, updates.getRowStart(8));
+        assertEquals(6, updates.getRowEnd(8));
+        assertEquals(3*SIZE + 2, updates.getTexels(2, 3).position());
+        assertEquals(1, updates.getTexels(2, 3).get());
+    }
+
+    @Test
+    void settingTheSameValueIsNotAChange() {
+        TextureUpdates updates = cleared();
+        updates.set(1, 1, (byte)0);
+        assertEquals(0, updates.getRowCount());
+
+        updates.set(1, 1, (byte)3);
+        updates.clear();
+        updates.set(1, 1, (byte)3);
+        assertEquals(0, updates.getRowCount());
+        assertEquals(3, updates.get(1, 1));
+    }
+
+    @Test
+    void changingMoreThanHalfTheRowsSendsTheWholeTexture() {
+        TextureUpdates updates = cleared();
+        for(int y = 0; y < SIZE/2; y++) {
+            updates.set(0, y, (byte)1);
+        }
+        assertFalse(updates.isFull());
+        assertEquals(SIZE/2, updates.getRowCount());
+
+        // More changes to rows that already have spans don't count as new rows
+        updates.set(9, 0, (byte)1);
+        assertFalse(updates.isFull());
+
+        updates.set(0, SIZE/2, (byte)1);
+        assertTrue(updates.isFull());
+        assertEquals(0, updates.getRowCount());
+        // The texels still change while the whole texture is marked
+        updates.set(3, 9, (byte)4);
+        assertEquals(4, updates.get(3, 9));
+        assertEquals(0, updates.getRowCount());
+    }
+
+    @Test
+    void clearForgetsTheSpans() {
+        TextureUpdates updates = cleared();
+        updates.set(3, 2, (byte)1);
+        updates.clear();
+        updates.set(7, 2, (byte)1);
+
+        assertEquals(1, updates.getRowCount());
+        assertEquals(7, updates.getRowStart(2));
+        assertEquals(8, updates.getRowEnd(2));
+    }
+
+    private static TextureUpdates cleared() {
+        TextureUpdates updates = new TextureUpdates(SIZE, SIZE);
+        updates.clear();
+        return updates;
+    }
+}
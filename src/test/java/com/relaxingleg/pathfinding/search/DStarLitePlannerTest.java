@@ -0,0 +1,69 @@
+package com.relaxingleg.pathfinding.search;
+
+import com.relaxingleg.pathfinding.grid.Grid;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Checks that repaired paths cost the same as a fresh A* search, whether a few cells changed, the same cell changed
+ * over and over, or so many cells changed that the planner starts again from scratch
+ * @author Matt
+ */
+class DStarLitePlannerTest {
+
+    private static final int SIZE = 64;
+
+    @Test
+    void replanMatchesAStar() {
+        Grid grid = new Grid(SIZE, SIZE);
+        Random random = new Random(9);
+        for(int i = 0; i < SIZE*SIZE/5; i++) {
+            grid.setBlocked(random.nextInt(SIZE), random.nextInt(SIZE), true);
+        }
+        grid.setBlocked(0, 0, false);
+        grid.setBlocked(SIZE - 1, SIZE - 1, false);
+        DStarLitePlanner planner = new DStarLitePlanner(grid);
+        PathfindingEngine engine = new PathfindingEngine(grid);
+        assertSameCost(engine, planner.findPath(0, 0, SIZE - 1, SIZE - 1));
+
+        // More than an eighth of the cells, so the last bursts are planned from scratch
+        int[] burstSizes = {1, 3, 20, 100, 600, 2000};
+        for(int round = 0; round < 60; round++) {
+            int burst = burstSizes[round % burstSizes.length];
+            for(int i = 0; i < burst; i++) {
+                int x = random.nextInt(SIZE), y = random.nextInt(SIZE);
+                if((x == 0 && y == 0) || (x == SIZE - 1 && y == SIZE - 1)) continue;
+                grid.toggle(x, y);
+                // The same cell changing back and forth should only be repaired once
+                if(i % 7 == 0) {
+                    grid.toggle(x, y);
+                    grid.toggle(x, y);
+                }
+            }
+            assertSameCost(engine, planner.replan());
+        }
+    }
+
+    @Test
+    void replanAfterClear() {
+        Grid grid = new Grid(SIZE, SIZE);
+        for(int y = 0; y < SIZE - 1; y++) {
+            grid.setBlocked(SIZE / 2, y, true);
+        }
+        DStarLitePlanner planner = new DStarLitePlanner(grid);
+        PathfindingEngine engine = new PathfindingEngine(grid);
+        assertSameCost(engine, planner.findPath(0, 0, SIZE - 1, SIZE - 1));
+
+        grid.clear();
+        assertSameCost(engine, planner.replan());
+    }
+
+    private static void assertSameCost(PathfindingEngine engine, Path path) {
+        Path expected = engine.findPath(0, 0, SIZE - 1, SIZE - 1);
+        assertEquals(expected.isEmpty(), path.isEmpty());
+        assertEquals(expected.getCost(), path.getCost());
+    }
+}
@@ -0,0 +1,73 @@
+package com.relaxingleg.pathfinding.search;
+
+import com.relaxingleg.pathfinding.grid.ComponentIndex;
+import com.relaxingleg.pathfinding.grid.Grid;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingStream;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Checks the search and preprocess events come through a recording stream with their fields filled in
+ * @author Matt
+ */
+class FlightRecorderEventTest {
+
+    private static final String SEARCH = "com.relaxingleg.pathfinding.Search";
+    private static final String PREPROCESS = "com.relaxingleg.pathfinding.Preprocess";
+
+    @Test
+    void recordsSearchesAndBuilds() throws InterruptedException {
+        Grid grid = new Grid(40, 30);
+        for(int y = 0; y < 25; y++) {
+            grid.setBlocked(20, y, true);
+        }
+        List<RecordedEvent> searches = new CopyOnWriteArrayList<>();
+        List<RecordedEvent> builds = new CopyOnWriteArrayList<>();
+        // One search and two builds
+        CountDownLatch latch = new CountDownLatch(3);
+        try(RecordingStream stream = new RecordingStream()) {
+            stream.enable(SEARCH);
+            stream.enable(PREPROCESS);
+            stream.onEvent(SEARCH, event -> {
+                searches.add(event);
+                latch.countDown();
+            });
+            stream.onEvent(PREPROCESS, event -> {
+                builds.add(event);
+                latch.countDown();
+            });
+            stream.startAsync();
+
+            PathfindingEngine engine = new PathfindingEngine(grid);
+            Path path = engine.findPath(0, 0, 39, 0);
+            LandmarkHeuristic.build(grid, 4, LandmarkSelection.FARTHEST);
+            new ComponentIndex(grid).rebuild();
+            assertTrue(latch.await(30, TimeUnit.SECONDS), "Events weren't all streamed");
+
+            assertEquals(1, searches.size());
+            RecordedEvent search = searches.get(0);
+            assertEquals("PathfindingEngine", search.getString("engine"));
+            assertEquals(40, search.getInt("gridWidth"));
+            assertEquals(30, search.getInt("gridHeight"));
+            assertEquals(engine.getExpandedCount(), search.getInt("expanded"));
+            assertEquals(path.length(), search.getInt("pathLength"));
+            assertEquals(path.getCost(), search.getInt("cost"));
+
+            assertTrue(builds.size() >= 2);
+            assertTrue(builds.stream().anyMatch(event -> event.getString("structure").equals("landmarks")));
+            assertTrue(builds.stream().anyMatch(event -> event.getString("structure").equals("components")));
+            for(RecordedEvent build : builds) {
+                assertEquals(40, build.getInt("gridWidth"));
+                assertEquals(30, build.getInt("gridHeight"));
+            }
+        }
+    }
+}
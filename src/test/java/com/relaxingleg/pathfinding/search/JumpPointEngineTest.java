@@ -0,0 +1,89 @@
+package com.relaxingleg.pathfinding.search;
+
+import com.relaxingleg.pathfinding.grid.Grid;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Checks that Jump Point Search finds paths that cost the same as A* on random grids, and that every path it gives back
+ * is a line of walkable neighbours from the start to the goal
+ * The grids are sized so rows and columns end part way through a word, which is where the word scans can go wrong
+ * @author Matt
+ */
+class JumpPointEngineTest {
+
+    private static final int[][] SIZES = {{1, 40}, {37, 23}, {64, 64}, {65, 130}, {150, 71}, {200, 200}};
+    private static final double[] DENSITIES = {0.05, 0.2, 0.35, 0.45};
+    private static final int QUERIES = 20;
+
+    @ParameterizedTest
+    @EnumSource(QueueType.class)
+    void costsMatchAStar(QueueType queueType) {
+        Random random = new Random(5);
+        int found = 0, notFound = 0;
+        for(int[] size : SIZES) {
+            for(double density : DENSITIES) {
+                for(int map = 0; map < 4; map++) {
+                    Grid grid = createGrid(size[0], size[1], density, random);
+                    PathfindingEngine aStar = new PathfindingEngine(grid);
+                    PathfindingEngine jumpPoint = new JumpPointEngine(grid);
+                    aStar.setQueueType(queueType);
+                    jumpPoint.setQueueType(queueType);
+                    for(int query = 0; query < QUERIES; query++) {
+                        int startX = random.nextInt(size[0]), startY = random.nextInt(size[1]);
+                        int goalX = random.nextInt(size[0]), goalY = random.nextInt(size[1]);
+                        String name = size[0] + "x" + size[1] + " at " + density + " from (" + startX + ", " + startY
+                                + ") to (" + goalX + ", " + goalY + ")";
+                        Path expected = aStar.findPath(startX, startY, goalX, goalY);
+                        Path actual = jumpPoint.findPath(startX, startY, goalX, goalY);
+
+                        assertEquals(expected.isEmpty(), actual.isEmpty(), name);
+                        assertEquals(expected.getCost(), actual.getCost(), name);
+                        if(actual.isEmpty()) {
+                            notFound++;
+                            continue;
+                        }
+                        found++;
+                        assertWalkableLine(grid, actual, startX, startY, goalX, goalY, name);
+                    }
+                }
+            }
+        }
+        assertTrue(found > 500 && notFound > 100, "Found " + found + " paths and missed " + notFound);
+    }
+
+    /**
+     * Checks the path goes from the start to the goal one walkable neighbour at a time, and adds up to its cost
+     */
+    private static void assertWalkableLine(Grid grid, Path path, int startX, int startY, int goalX, int goalY, String name) {
+        assertEquals(startX, path.getX(0), name);
+        assertEquals(startY, path.getY(0), name);
+        assertEquals(goalX, path.getX(path.length() - 1), name);
+        assertEquals(goalY, path.getY(path.length() - 1), name);
+        int cost = 0;
+        for(int i = 0; i < path.length(); i++) {
+            assertTrue(grid.isWalkable(path.getX(i), path.getY(i)), name + ", cell " + i + " is blocked");
+            if(i == 0) continue;
+            int stepX = Math.abs(path.getX(i) - path.getX(i - 1));
+            int stepY = Math.abs(path.getY(i) - path.getY(i - 1));
+            assertEquals(1, Math.max(stepX, stepY), name + ", cells " + (i - 1) + " and " + i + " aren't neighbours");
+            cost += stepX + stepY == 2 ? PathfindingEngine.DIAGONAL_COST : PathfindingEngine.STRAIGHT_COST;
+        }
+        assertEquals(path.getCost(), cost, name);
+    }
+
+    private static Grid createGrid(int width, int height, double density, Random random) {
+        Grid grid = new Grid(width, height);
+        for(int y = 0; y < height; y++) {
+            for(int x = 0; x < width; x++) {
+                if(random.nextDouble() < density) grid.setBlocked(x, y, true);
+            }
+        }
+        return grid;
+    }
+}
@@ -0,0 +1,60 @@
+package com.relaxingleg.pathfinding.search;
+
+import com.relaxingleg.pathfinding.grid.Grid;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Checks that a path from the cache is always as good as a fresh search, however the grid changed since it was cached
+ * The queries come from a small set so most of them are answered from the cache
+ * @author Matt
+ */
+class PathCacheTest {
+
+    private static final int SIZE = 40;
+    private static final int QUERIES = 30;
+
+    @Test
+    void cachedPathsMatchFreshSearches() {
+        Random random = new Random(8);
+        Grid grid = new Grid(SIZE, SIZE);
+        for(int i = 0; i < SIZE*SIZE*3/10; i++) {
+            grid.setBlocked(random.nextInt(SIZE), random.nextInt(SIZE), true);
+        }
+        PathCache cache = new PathCache(new PathfindingEngine(grid), QUERIES*2);
+        PathfindingEngine fresh = new PathfindingEngine(grid);
+        int[][] queries = new int[QUERIES][];
+        for(int i = 0; i < QUERIES; i++) {
+            queries[i] = new int[]{random.nextInt(SIZE), random.nextInt(SIZE), random.nextInt(SIZE), random.nextInt(SIZE)};
+        }
+
+        for(int round = 0; round < 20_000; round++) {
+            int choice = random.nextInt(100);
+            int x = random.nextInt(SIZE), y = random.nextInt(SIZE);
+            if(choice < 10) {
+                grid.setBlocked(x, y, true);
+            } else if(choice < 20) {
+                grid.setBlocked(x, y, false);
+            } else if(choice < 25) {
+                grid.toggle(x, y);
+            } else if(choice == 25 && random.nextInt(20) == 0) {
+                grid.clear();
+            }
+            int[] query = queries[random.nextInt(QUERIES)];
+            Path cached = cache.findPath(query[0], query[1], query[2], query[3]);
+            Path expected = fresh.findPath(query[0], query[1], query[2], query[3]);
+            String name = "Round " + round + " from (" + query[0] + ", " + query[1] + ") to (" + query[2] + ", " + query[3] + ")";
+            assertEquals(expected.isEmpty(), cached.isEmpty(), name);
+            assertEquals(expected.getCost(), cached.getCost(), name);
+            for(int i = 0; i < cached.length(); i++) {
+                assertTrue(grid.isWalkable(cached.getX(i), cached.getY(i)), name + ", cell " + i + " is blocked");
+            }
+        }
+        assertTrue(cache.getHits() > 5000, "Only " + cache.getHits() + " queries were answered from the cache");
+        assertTrue(cache.getInvalidations() > 1000, "Only " + cache.getInvalidations() + " paths were dropped");
+    }
+}
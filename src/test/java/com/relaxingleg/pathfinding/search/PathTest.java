@@ -0,0 +1,48 @@
+package com.relaxingleg.pathfinding.search;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Checks that paths read back from runs are the same as the ones written, and that offset paths can't be written
+ * @author Matt
+ */
+class PathTest {
+
+    private static final int WIDTH = 10;
+
+    @Test
+    void runsRoundTrip() {
+        // Right, right, down right, down, down, left
+        int[] cells = {11, 12, 13, 24, 34, 44, 43};
+        Path path = new Path(cells, WIDTH, 68);
+
+        int[] runs = path.toRuns();
+        assertEquals(5, runs.length);
+        assertEquals(11, runs[0]);
+        Path read = Path.fromRuns(runs, WIDTH, path.getCost());
+        assertArrayEquals(cells, read.toArray());
+        assertEquals(68, read.getCost());
+    }
+
+    @Test
+    void emptyPathHasNoRuns() {
+        Path path = new Path(new int[0], WIDTH, -1);
+
+        assertEquals(0, path.toRuns().length);
+        assertEquals(0, Path.fromRuns(new int[0], WIDTH, -1).length());
+    }
+
+    @Test
+    void offsetPathKeepsWorldCoordinatesButCantBeWrittenAsRuns() {
+        Path path = new Path(new int[]{11, 22}, WIDTH, 14).offset(-500, 300);
+
+        assertEquals(-499, path.getX(0));
+        assertEquals(301, path.getY(0));
+        assertEquals(22, path.getCell(1));
+        assertThrows(IllegalStateException.class, path::toRuns);
+    }
+}
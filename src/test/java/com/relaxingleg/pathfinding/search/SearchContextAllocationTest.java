@@ -0,0 +1,84 @@
+package com.relaxingleg.pathfinding.search;
+
+import com.relaxingleg.pathfinding.grid.Grid;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+
+import java.lang.management.ManagementFactory;
+import java.util.Random;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Checks that once an engine is warmed up, starting and stepping searches doesn't allocate anything
+ * The goal is walled in so a whole search can run without making a path, which is the only thing a search allocates
+ * @author Matt
+ */
+class SearchContextAllocationTest {
+
+    private static final int SIZE = 128;
+    private static final int WARM_UP_SEARCHES = 200;
+    private static final int MEASURED_SEARCHES = 50;
+    private static final com.sun.management.ThreadMXBean THREADS =
+            (com.sun.management.ThreadMXBean)ManagementFactory.getThreadMXBean();
+
+    @ParameterizedTest
+    @EnumSource(QueueType.class)
+    void aStarDoesNotAllocate(QueueType queueType) {
+        assertNoAllocation(PathfindingEngine::new, queueType);
+    }
+
+    @ParameterizedTest
+    @EnumSource(QueueType.class)
+    void jumpPointDoesNotAllocate(QueueType queueType) {
+        assertNoAllocation(JumpPointEngine::new, queueType);
+    }
+
+    private static void assertNoAllocation(Function<Grid, PathfindingEngine> engineFactory, QueueType queueType) {
+        assertTrue(THREADS.isThreadAllocatedMemorySupported() && THREADS.isThreadAllocatedMemoryEnabled());
+        Grid grid = createGrid();
+        PathfindingEngine engine = engineFactory.apply(grid);
+        engine.setQueueType(queueType);
+        int steps = 0;
+        for(int i = 0; i < WARM_UP_SEARCHES; i++) {
+            steps = search(engine);
+        }
+        assertTrue(steps > 1000, "The search should explore most of the map, it took " + steps + " steps");
+        assertTrue(engine.getPath().isEmpty());
+
+        long before = THREADS.getCurrentThreadAllocatedBytes();
+        for(int i = 0; i < MEASURED_SEARCHES; i++) {
+            search(engine);
+        }
+        long allocated = THREADS.getCurrentThreadAllocatedBytes() - before;
+        assertEquals(0, allocated, MEASURED_SEARCHES + " searches allocated " + allocated + " bytes");
+    }
+
+    private static int search(PathfindingEngine engine) {
+        engine.start(0, 0, SIZE - 1, SIZE - 1);
+        int steps = 0;
+        while(!engine.step()) {
+            steps++;
+        }
+        return steps;
+    }
+
+    private static Grid createGrid() {
+        Grid grid = new Grid(SIZE, SIZE);
+        Random random = new Random(42);
+        for(int y = 0; y < SIZE; y++) {
+            for(int x = 0; x < SIZE; x++) {
+                if(random.nextDouble() < 0.2) grid.setBlocked(x, y, true);
+            }
+        }
+        grid.setBlocked(0, 0, false);
+        grid.setBlocked(SIZE - 1, SIZE - 1, false);
+        // Walls the goal into its corner
+        grid.setBlocked(SIZE - 2, SIZE - 1, true);
+        grid.setBlocked(SIZE - 2, SIZE - 2, true);
+        grid.setBlocked(SIZE - 1, SIZE - 2, true);
+        return grid;
+    }
+}
@@ -0,0 +1,93 @@
+package com.relaxingleg.pathfinding.utils;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Checks that values with the same key come out lowest tie first, which for F and H costs is highest G cost first,
+ * and that the queue pops in the same order as a heap comparing F and then H
+ * @author Matt
+ */
+class BucketQueueTest {
+
+    private static final int CAPACITY = 2000;
+    private final int[] gCost = new int[CAPACITY];
+    private final int[] hCost = new int[CAPACITY];
+
+    @Test
+    void equalKeysPopHighestGFirst() {
+        BucketQueue queue = createQueue();
+        Random random = new Random(3);
+        for(int item = 0; item < 500; item++) {
+            gCost[item] = random.nextInt(100);
+            hCost[item] = 100 - gCost[item];
+            queue.put(item);
+        }
+
+        int lastG = Integer.MAX_VALUE;
+        while(!queue.isEmpty()) {
+            int item = queue.pop();
+            assertEquals(100, gCost[item] + hCost[item]);
+            assertTrue(gCost[item] <= lastG, "G cost " + gCost[item] + " came out after " + lastG);
+            lastG = gCost[item];
+        }
+    }
+
+    @Test
+    void matchesHeapOrder() {
+        BucketQueue queue = createQueue();
+        IntHeap heap = new IntHeap((a, b) -> {
+            int fA = gCost[a] + hCost[a], fB = gCost[b] + hCost[b];
+            if(fA != fB) return fB - fA;
+            return hCost[b] - hCost[a];
+        }, CAPACITY);
+        Random random = new Random(11);
+        int floor = 0;
+        for(int operation = 0; operation < 200_000; operation++) {
+            int item = random.nextInt(CAPACITY);
+            int choice = random.nextInt(10);
+            if(choice < 4 && !queue.contains(item)) {
+                // Mostly at or above the last key popped, like A*, but sometimes below it
+                hCost[item] = random.nextInt(40);
+                gCost[item] = Math.max(0, floor - hCost[item] + random.nextInt(20) - (random.nextInt(50) == 0 ? 30 : 0));
+                queue.put(item);
+                heap.put(item);
+            } else if(choice < 6 && queue.contains(item) && gCost[item] > 0) {
+                gCost[item] -= 1 + random.nextInt(gCost[item]);
+                queue.decreaseKey(item);
+                heap.decreaseKey(item);
+            } else if(!queue.isEmpty()) {
+                int expected = heap.pop();
+                int actual = queue.pop();
+                assertEquals(gCost[expected] + hCost[expected], gCost[actual] + hCost[actual], "F cost");
+                assertEquals(hCost[expected], hCost[actual], "H cost");
+                if(actual != expected) {
+                    // Both have the same F and H, so either could come first
+                    heap.remove(actual);
+                    heap.put(expected);
+                }
+                floor = gCost[actual] + hCost[actual];
+            }
+            assertEquals(heap.size(), queue.size());
+        }
+    }
+
+    @Test
+    void withoutTiesEqualKeysAreLastInFirstOut() {
+        BucketQueue queue = new BucketQueue(item -> 5, CAPACITY);
+        for(int item = 0; item < 10; item++) {
+            queue.put(item);
+        }
+        for(int item = 9; item >= 0; item--) {
+            assertEquals(item, queue.pop());
+        }
+    }
+
+    private BucketQueue createQueue() {
+        return new BucketQueue(item -> gCost[item] + hCost[item], item -> hCost[item], CAPACITY);
+    }
+}